@@ -0,0 +1,107 @@
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic tweet corpora for the benchmarks in this directory.
+ * 
+ * generate(tweetCount, userCount, seed) draws authors and mentions uniformly.
+ * zipfian(...) draws them from a Zipf distribution, as on real social
+ * networks, where a few users write and are mentioned far more than the rest.
+ */
+public class BenchmarkCorpus {
+
+    private static final Instant BASE = Instant.parse("2016-02-17T10:00:00Z");
+
+    /**
+     * Generate a reproducible corpus.
+     * 
+     * @param tweetCount number of tweets
+     * @param userCount number of distinct users, as authors and mentions
+     * @param seed random seed
+     * @return tweetCount tweets with distinct ids and about 100 chars of text,
+     *         a quarter of whose words are mentions in mixed case
+     */
+    public static List<Tweet> generate(int tweetCount, int userCount, long seed) {
+        Random random = new Random(seed);
+        List<Tweet> tweets = new ArrayList<>(tweetCount);
+        for (int i = 0; i < tweetCount; i++) {
+            StringBuilder text = new StringBuilder();
+            while (text.length() < 100) {
+                if (random.nextInt(4) == 0) {
+                    text.append(random.nextBoolean() ? "@User" : "@user").append(random.nextInt(userCount));
+                } else {
+                    text.append("word").append(random.nextInt(50));
+                }
+                text.append(' ');
+            }
+            tweets.add(new Tweet(i, "user" + random.nextInt(userCount), text.toString(), BASE.plusSeconds(i)));
+        }
+        return tweets;
+    }
+
+    /**
+     * Generate a reproducible corpus with Zipf-distributed authors and mentions.
+     * 
+     * User "user" + r has popularity rank r: it is picked as author or mention
+     * with probability proportional to 1 / (r + 1)^exponent. Other words are
+     * drawn the same way from a vocabulary of 10000 words "word0", "word1", ...
+     * 
+     * @param tweetCount number of tweets
+     * @param userCount number of distinct users, as authors and mentions, > 0
+     * @param textLength length of each text, in chars (the last word may run over)
+     * @param exponent Zipf exponent, >= 0; 0 is uniform, about 1 is typical
+     * @param seed random seed
+     * @return tweetCount tweets with distinct ids one second apart, about one
+     *         word in eight of whose text is a mention in mixed case
+     */
+    public static List<Tweet> zipfian(int tweetCount, int userCount, int textLength, double exponent, long seed) {
+        Random random = new Random(seed);
+        Zipf users = new Zipf(userCount, exponent);
+        Zipf words = new Zipf(10000, exponent);
+        List<Tweet> tweets = new ArrayList<>(tweetCount);
+        StringBuilder text = new StringBuilder(textLength + 16);
+        for (int i = 0; i < tweetCount; i++) {
+            text.setLength(0);
+            while (text.length() < textLength) {
+                if (random.nextInt(8) == 0) {
+                    text.append(random.nextBoolean() ? "@User" : "@user").append(users.sample(random));
+                } else {
+                    text.append("word").append(words.sample(random));
+                }
+                text.append(' ');
+            }
+            tweets.add(new Tweet(i, "user" + users.sample(random), text.toString(), BASE.plusSeconds(i)));
+        }
+        return tweets;
+    }
+
+    /*
+     * Samples ranks 0..n-1 with probability proportional to 1 / (rank + 1)^s,
+     * by binary search over the cumulative distribution.
+     */
+    private static class Zipf {
+        private final double[] cumulative;
+
+        Zipf(int n, double s) {
+            cumulative = new double[n];
+            double total = 0;
+            for (int r = 0; r < n; r++) {
+                total += 1 / Math.pow(r + 1, s);
+                cumulative[r] = total;
+            }
+            for (int r = 0; r < n; r++) {
+                cumulative[r] /= total;
+            }
+        }
+
+        int sample(Random random) {
+            int r = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(r < 0 ? -r - 1 : r, cumulative.length - 1);
+        }
+    }
+}
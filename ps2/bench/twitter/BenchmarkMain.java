@@ -0,0 +1,47 @@
+package twitter;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks in this directory with the GC profiler, which adds
+ * allocation rate and bytes allocated per operation to each result, and
+ * writes the results as JSON.
+ * 
+ * Usage: BenchmarkMain [include-regex [result-file]]
+ * 
+ * include-regex selects benchmarks, as the positional argument of JMH's own
+ * main does (default "TwitterBenchmark"); result-file defaults to
+ * "jmh-result.json". For other options, such as -p tweetCount=1000, run
+ * org.openjdk.jmh.Main directly, with -prof gc -rf json.
+ * 
+ * There is no build file. The benchmarks must be compiled with JMH's
+ * annotation processor, which generates the benchmark stubs and the
+ * META-INF/BenchmarkList that the Runner reads; from ps2, with JMH 1.37:
+ * 
+ *   javac -cp jmh-core-1.37.jar:jmh-generator-annprocess-1.37.jar \
+ *         -processor org.openjdk.jmh.generators.BenchmarkProcessor \
+ *         -d bench-classes $(find src bench -name '*.java')
+ *   java -cp bench-classes:jmh-core-1.37.jar:jopt-simple-5.0.4.jar:commons-math3-3.6.1.jar \
+ *         twitter.BenchmarkMain
+ * 
+ * jopt-simple and commons-math3 are jmh-core's runtime dependencies.
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : TwitterBenchmark.class.getSimpleName();
+        String result = args.length > 1 ? args[1] : "jmh-result.json";
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,95 @@
+package twitter;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares Extract.getMentionedUsers against the char[]/StringBuilder scanner
+ * it replaced. Run with -prof gc to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtractBenchmark {
+
+    @Param({"1000", "100000"})
+    public int tweetCount;
+
+    @Param({"1000"})
+    public int userCount;
+
+    private List<Tweet> tweets;
+
+    @Setup
+    public void setUp() {
+        tweets = BenchmarkCorpus.generate(tweetCount, userCount, 6005);
+    }
+
+    @Benchmark
+    public Set<String> scanner() {
+        return Extract.getMentionedUsers(tweets);
+    }
+
+    @Benchmark
+    public Set<String> legacy() {
+        return legacyGetMentionedUsers(tweets);
+    }
+
+    /*
+     * The implementation of Extract.getMentionedUsers before MentionScanner,
+     * kept here as the baseline.
+     */
+    private static Set<String> legacyGetMentionedUsers(List<Tweet> tweets) {
+        Set<String> mentioned = new HashSet<String>();
+        
+        for (Tweet tt: tweets) {
+            String txt = tt.getText();
+            char[] chars = txt.toCharArray();
+            
+            int i = 0;
+            while (i < chars.length - 1) {
+                if (isStartOfUsername(chars, i)) {
+                    int j = i + 1;
+                    StringBuilder sb = new StringBuilder();    
+                    while (j < chars.length && isValidCharInUsername(chars[j])){
+                        sb.append(chars[j]);
+                        j++;  
+                    }
+                    String name = sb.toString();
+                    mentioned.add(name.toUpperCase());
+                    i = j;
+                }
+                i += 1;     
+            }
+        }
+        return mentioned;
+    }
+
+    private static boolean isStartOfUsername(char[] chars, int i) {
+        if (i == 0) {
+            return chars[i] == '@' && isValidCharInUsername(chars[i+1]);
+        }
+        return !isValidCharInUsername(chars[i-1]) && chars[i] == '@' && isValidCharInUsername(chars[i+1]);
+    }
+
+    private static boolean isValidCharInUsername(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-';
+    }
+}
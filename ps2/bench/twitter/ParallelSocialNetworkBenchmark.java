@@ -0,0 +1,66 @@
+package twitter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scaling of ParallelSocialNetwork.guessFollowsGraph from 1 to N cores,
+ * against the sequential SocialNetwork.guessFollowsGraph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelSocialNetworkBenchmark {
+
+    @Param({"1000000"})
+    public int tweetCount;
+
+    @Param({"100000"})
+    public int userCount;
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    public int threads;
+
+    private List<Tweet> tweets;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        tweets = BenchmarkCorpus.generate(tweetCount, userCount, 6005);
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Map<String, Set<String>> parallel() {
+        return ParallelSocialNetwork.guessFollowsGraph(tweets, pool);
+    }
+
+    @Benchmark
+    public Map<String, Set<String>> sequential() {
+        return SocialNetwork.guessFollowsGraph(tweets);
+    }
+}
@@ -0,0 +1,111 @@
+package twitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load generator for QueryServer: starts a server over a Zipfian corpus on a
+ * free local port, runs closed-loop clients that send a mix of timeline,
+ * search, timespan and influencer queries, and reports throughput and
+ * latency percentiles. Halfway through, it ingests another tenth of the
+ * corpus, to measure queries served across a snapshot swap.
+ * 
+ * Usage: QueryServerLoad [tweetCount [clients [seconds]]]
+ * (defaults 100000 tweets, 64 clients, 20 seconds)
+ */
+public class QueryServerLoad {
+
+    public static void main(String[] args) throws Exception {
+        int tweetCount = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int userCount = Math.max(10, tweetCount / 10);
+
+        List<Tweet> corpus = BenchmarkCorpus.zipfian(tweetCount + tweetCount / 10, userCount, 100, 1.0, 6005);
+        QueryServer server = new QueryServer(new InetSocketAddress("localhost", 0),
+                                             corpus.subList(0, tweetCount));
+        server.start();
+        System.out.println("serving " + tweetCount + " tweets on port " + server.port()
+                + (server.usesVirtualThreads() ? " with virtual threads" : " with a cached thread pool"));
+
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder errors = new LongAdder();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<Future<?>> running = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            final long seed = c;
+            running.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                while (System.nanoTime() < deadline) {
+                    String path = randomQuery(random, userCount);
+                    long start = System.nanoTime();
+                    if (!fetch(server.port(), path)) {
+                        errors.increment();
+                    }
+                    latency.record(System.nanoTime() - start);
+                }
+                return null;
+            }));
+        }
+
+        TimeUnit.SECONDS.sleep(seconds / 2);
+        long ingestStart = System.nanoTime();
+        server.ingest(corpus.subList(tweetCount, corpus.size()));
+        System.out.printf("ingested %d tweets in %.1f ms (version %d)%n", corpus.size() - tweetCount,
+                          (System.nanoTime() - ingestStart) / 1e6, server.version());
+
+        for (Future<?> f : running) {
+            f.get();
+        }
+        pool.shutdown();
+        server.stop(0);
+
+        long requests = latency.count();
+        System.out.printf("%d requests, %d errors, %.0f requests/s%n", requests, errors.sum(),
+                          requests / (double) seconds);
+        for (double q : new double[] { 0.5, 0.9, 0.99, 0.999, 1.0 }) {
+            System.out.printf("  p%-6s %8.3f ms%n", q * 100, latency.valueAt(q) / 1e6);
+        }
+    }
+
+    private static String randomQuery(Random random, int userCount) {
+        switch (random.nextInt(4)) {
+        case 0:
+            return "/timeline?user=user" + (int) (userCount * Math.pow(random.nextDouble(), 3)) + "&limit=20";
+        case 1:
+            return "/search?words=word" + random.nextInt(100) + "+word" + random.nextInt(10000) + "&limit=20";
+        case 2:
+            return "/timespan?start=2016-02-17T10:00:00Z&end=2016-02-17T1" + random.nextInt(10) + ":00:00Z&limit=20";
+        default:
+            return "/influencers?limit=10";
+        }
+    }
+
+    private static boolean fetch(int port, String path) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+            try (InputStream in = connection.getResponseCode() == 200 ? connection.getInputStream()
+                                                                      : connection.getErrorStream()) {
+                byte[] buffer = new byte[8192];
+                while (in.read(buffer) > 0) {
+                    // drain, so the connection can be reused
+                }
+            }
+            return connection.getResponseCode() == 200;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
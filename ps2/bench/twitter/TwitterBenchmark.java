@@ -0,0 +1,116 @@
+package twitter;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of every public method of Extract, Filter and SocialNetwork over
+ * Zipfian corpora from 1k to 10M tweets (see BenchmarkCorpus.zipfian).
+ * 
+ * BenchmarkMain runs this with the GC profiler, for allocation rates, and
+ * writes JSON results. The 10M corpus needs a heap of several GB; pass
+ * -jvmArgs -Xmx8g, or restrict sizes with -p tweetCount=1000,100000.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class TwitterBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int tweetCount;
+
+    @Param({"100000"})
+    public int userCount;
+
+    @Param({"100"})
+    public int textLength;
+
+    @Param({"1.0"})
+    public double zipfExponent;
+
+    private List<Tweet> tweets;
+    private Timespan middleHalf;
+    private String prolificAuthor;
+    private String rareAuthor;
+    private List<String> commonWords;
+    private List<String> rareWords;
+    private Map<String, Set<String>> followsGraph;
+
+    @Setup
+    public void setUp() {
+        tweets = BenchmarkCorpus.zipfian(tweetCount, userCount, textLength, zipfExponent, 6005);
+        Instant start = tweets.get(0).getTimestamp();
+        Instant end = tweets.get(tweets.size() - 1).getTimestamp();
+        long quarter = (end.getEpochSecond() - start.getEpochSecond()) / 4;
+        middleHalf = new Timespan(start.plusSeconds(quarter), end.minusSeconds(quarter));
+        prolificAuthor = "USER0";
+        rareAuthor = "user" + (userCount - 1);
+        commonWords = Arrays.asList("word0", "WORD1");
+        rareWords = Arrays.asList("word9999", "nosuchword");
+        followsGraph = SocialNetwork.guessFollowsGraph(tweets);
+    }
+
+    @Benchmark
+    public Timespan getTimespan() {
+        return Extract.getTimespan(tweets);
+    }
+
+    @Benchmark
+    public Set<String> getMentionedUsers() {
+        return Extract.getMentionedUsers(tweets);
+    }
+
+    @Benchmark
+    public List<Tweet> writtenByProlific() {
+        return Filter.writtenBy(tweets, prolificAuthor);
+    }
+
+    @Benchmark
+    public List<Tweet> writtenByRare() {
+        return Filter.writtenBy(tweets, rareAuthor);
+    }
+
+    @Benchmark
+    public List<Tweet> inTimespan() {
+        return Filter.inTimespan(tweets, middleHalf);
+    }
+
+    @Benchmark
+    public List<Tweet> containingCommon() {
+        return Filter.containing(tweets, commonWords);
+    }
+
+    @Benchmark
+    public List<Tweet> containingRare() {
+        return Filter.containing(tweets, rareWords);
+    }
+
+    @Benchmark
+    public Map<String, Set<String>> guessFollowsGraph() {
+        return SocialNetwork.guessFollowsGraph(tweets);
+    }
+
+    @Benchmark
+    public List<String> influencers() {
+        return SocialNetwork.influencers(followsGraph);
+    }
+}
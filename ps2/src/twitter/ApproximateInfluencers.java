@@ -0,0 +1,261 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * ApproximateInfluencers estimates the most-followed users of the follows
+ * graph that SocialNetwork.guessFollowsGraph would guess from a stream of
+ * tweets, in a fixed amount of memory chosen by the caller.
+ * 
+ * The follows graph itself is never stored. Each follow edge (author,
+ * mentioned user) is hashed into a Bloom filter, and only edges the filter
+ * has not seen are counted, in a Count-Min sketch keyed by the followed user.
+ * The k users with the highest estimates so far are kept as heavy-hitter
+ * candidates, so topK() needs no pass over the users.
+ * 
+ * Usernames are hashed straight from the tweet text, case-folded as they are
+ * read; a String is made for a user only when it becomes a candidate, so
+ * memory beyond the filter and sketch is O(k) however many users are seen.
+ * Two users whose 64-bit hashes collide are treated as one.
+ * 
+ * Estimates can err both ways. A Bloom filter false positive makes a new edge
+ * look seen, so the count is too low; the chance of that grows as the filter
+ * fills. A sketch collision makes a count too high, by at most errorBound()
+ * with probability at least 1 - e^-4. A user is a candidate only if its
+ * estimate was in the top k when it was last mentioned.
+ * 
+ * A ranking is mutable and not thread-safe.
+ */
+public class ApproximateInfluencers {
+
+    /*
+     * Rows of the Count-Min sketch: estimates are within errorBound() with
+     * probability at least 1 - e^-DEPTH.
+     */
+    private static final int DEPTH = 4;
+    /*
+     * Bits set per edge in the Bloom filter.
+     */
+    private static final int EDGE_HASHES = 4;
+    /*
+     * Smallest memory budget, in bytes.
+     */
+    private static final long MIN_MEMORY = 1024;
+
+    private final int k;
+    private final BloomFilter edges;
+    private final CountMinSketch followers;
+    private final Map<Long, Candidate> candidates = new HashMap<Long, Candidate>();
+    private final TreeSet<Candidate> ranking = new TreeSet<Candidate>(ApproximateInfluencers::compare);
+    private long edgesCounted = 0;
+    private final MentionScanner.MentionHandler countEdge = this::countEdge;
+    private String author = null;
+    private long authorHash = 0;
+    private boolean authorHashed = false;
+    /* Rep invariant:
+     *    k > 0; candidates.size() <= k; ranking contains exactly the values of
+     *    candidates
+     *    candidates maps c.hash to c, where c.name is a lowercase username,
+     *    c.hash is BloomFilter.hash(c.name), and c.estimate was followers'
+     *    estimate for it when last updated
+     *    edgesCounted is the number of edges the Bloom filter reported as new
+     *    author is the author of the tweet being accepted, null between calls;
+     *    if authorHashed, authorHash is BloomFilter.foldedHash of author
+     * Abstraction function:
+     *    represents the approximate follower counts followers.estimate(u), and
+     *    the approximate top-k users in ranking
+     * Safety from rep exposure:
+     *    all fields are private; only Strings, numbers and new lists are
+     *    returned
+     */
+
+    /*
+     * A heavy-hitter candidate and its estimate when last updated.
+     */
+    private static class Candidate {
+        private final String name;
+        private final long hash;
+        private int estimate;
+
+        Candidate(String name, long hash, int estimate) {
+            this.name = name;
+            this.hash = hash;
+            this.estimate = estimate;
+        }
+    }
+
+    /**
+     * Make an empty ranking.
+     * 
+     * @param memoryBytes
+     *            memory for the Bloom filter and sketch together, in bytes,
+     *            >= 1024; half goes to each. The k candidates take O(k) more.
+     * @param k
+     *            number of top users to track, > 0
+     */
+    public ApproximateInfluencers(long memoryBytes, int k) {
+        if (memoryBytes < MIN_MEMORY || k <= 0) {
+            throw new IllegalArgumentException("requires memoryBytes >= " + MIN_MEMORY + ", k > 0");
+        }
+        long half = Math.min(memoryBytes / 2, (long) Integer.MAX_VALUE / 8);
+        this.k = k;
+        this.edges = new BloomFilter((int) (half * 8), EDGE_HASHES);
+        this.followers = new CountMinSketch((int) (half / Integer.BYTES / DEPTH), DEPTH);
+    }
+
+    /**
+     * Add the evidence in one tweet.
+     * 
+     * @param tweet
+     *            a tweet
+     */
+    public void accept(Tweet tweet) {
+        author = tweet.getAuthor();
+        authorHashed = false;
+        try {
+            MentionScanner.scanHashes(tweet.getText(), countEdge);
+        } finally {
+            author = null;
+        }
+    }
+
+    /*
+     * Count the edge from the current author to the user mentioned as
+     * text[start..end), if it is new.
+     */
+    private void countEdge(String text, int start, int end, long mentionedHash) {
+        if (equalsFolded(author, text, start, end)) {
+            return;
+        }
+        if (!authorHashed) {
+            authorHash = BloomFilter.foldedHash(author, 0, author.length());
+            authorHashed = true;
+        }
+        if (edges.put(edgeHash(authorHash, mentionedHash))) {
+            edgesCounted++;
+            offer(text, start, end, mentionedHash, followers.increment(mentionedHash));
+        }
+    }
+
+    /*
+     * @return true iff username and chars[start..end) are the same case-folded
+     */
+    private static boolean equalsFolded(String username, CharSequence chars, int start, int end) {
+        if (username.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (InternTable.fold(username.charAt(i - start)) != InternTable.fold(chars.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Add the evidence in many tweets.
+     * 
+     * @param tweets
+     *            tweets, not modified
+     */
+    public void acceptAll(Iterable<Tweet> tweets) {
+        for (Tweet t : tweets) {
+            accept(t);
+        }
+    }
+
+    /*
+     * Combine the hashes of an edge's ends, so (a, b) and (b, a) differ.
+     */
+    private static long edgeHash(long from, long to) {
+        long h = from * 0x9e3779b97f4a7c15L + to;
+        h ^= h >>> 31;
+        h *= 0xbf58476d1ce4e5b9L;
+        h ^= h >>> 29;
+        return h;
+    }
+
+    /*
+     * Update the candidates with the new estimate of the user mentioned as
+     * text[start..end), whose hash is userHash.
+     */
+    private void offer(String text, int start, int end, long userHash, int estimate) {
+        // estimates only grow, by one per counted edge, so a user at or below
+        // the last candidate can be neither a candidate nor become one
+        if (candidates.size() == k && ranking.last().estimate >= estimate) {
+            return;
+        }
+        Candidate user = candidates.get(userHash);
+        if (user != null) {
+            ranking.remove(user);
+            user.estimate = estimate;
+        } else {
+            if (candidates.size() == k) {
+                Candidate last = ranking.pollLast();
+                candidates.remove(last.hash);
+            }
+            user = new Candidate(fold(text, start, end), userHash, estimate);
+            candidates.put(userHash, user);
+        }
+        ranking.add(user);
+    }
+
+    /*
+     * @return chars[start..end) case-folded as by InternTable.fold
+     */
+    private static String fold(CharSequence chars, int start, int end) {
+        char[] folded = new char[end - start];
+        for (int i = start; i < end; i++) {
+            folded[i - start] = InternTable.fold(chars.charAt(i));
+        }
+        return new String(folded);
+    }
+
+    /*
+     * Ranking order: higher estimate first, then alphabetical.
+     */
+    private static int compare(Candidate a, Candidate b) {
+        int c = Integer.compare(b.estimate, a.estimate);
+        return c != 0 ? c : a.name.compareTo(b.name);
+    }
+
+    /**
+     * @return up to k lowercase usernames, in descending order of estimated
+     *         follower count; users with equal estimates in alphabetical order
+     */
+    public List<String> topK() {
+        List<String> top = new ArrayList<String>(ranking.size());
+        for (Candidate c : ranking) {
+            top.add(c.name);
+        }
+        return top;
+    }
+
+    /**
+     * @param username
+     *            Twitter username, in any case
+     * @return estimated number of distinct users who follow username
+     */
+    public int estimate(String username) {
+        return followers.estimate(BloomFilter.foldedHash(username, 0, username.length()));
+    }
+
+    /**
+     * @return number of distinct follow edges counted so far
+     */
+    public long edgesCounted() {
+        return edgesCounted;
+    }
+
+    /**
+     * @return amount by which an estimate may exceed the number of counted
+     *         edges to that user, with probability at least 1 - e^-4
+     */
+    public double errorBound() {
+        return followers.errorBound();
+    }
+}
@@ -0,0 +1,93 @@
+package twitter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable index from author to the positions of the tweets they wrote.
+ * 
+ * Usernames are case-folded once, when the index is built, so a lookup costs
+ * one hash probe plus the size of the result. Keys and queries are both
+ * folded by InternTable, so lookups do not depend on the default locale.
+ */
+class AuthorIndex {
+
+    private static final int[] NONE = new int[0];
+
+    private final Map<String, int[]> positions;
+    /* Rep invariant:
+     *    every key is a lowercase username
+     *    positions.get(u) is nonempty, strictly increasing, and lists exactly
+     *    the tweets whose author equals u ignoring case
+     * Abstraction function:
+     *    represents the relation "tweet at position p was written by u"
+     * Safety from rep exposure:
+     *    positions is private and its arrays are never returned; callers get
+     *    copies
+     */
+
+    /**
+     * Build the index.
+     * 
+     * @param tweets tweets to index, not modified
+     */
+    AuthorIndex(List<Tweet> tweets) {
+        InternTable folded = new InternTable();
+        Map<String, Positions> growing = new HashMap<String, Positions>();
+
+        for (int i = 0; i < tweets.size(); i++) {
+            String author = tweets.get(i).getAuthor();
+            String key = folded.intern(author, 0, author.length());
+            Positions list = growing.get(key);
+            if (list == null) {
+                list = new Positions();
+                growing.put(key, list);
+            }
+            list.add(i);
+        }
+
+        this.positions = new HashMap<String, int[]>(growing.size() * 4 / 3 + 1);
+        for (Map.Entry<String, Positions> e : growing.entrySet()) {
+            this.positions.put(e.getKey(), e.getValue().toArray());
+        }
+    }
+
+    /**
+     * @param username Twitter username, in any case
+     * @return positions of the tweets written by username, in increasing order
+     */
+    int[] writtenBy(String username) {
+        int[] list = positions.get(InternTable.fold(username));
+        return list == null ? NONE : list.clone();
+    }
+
+    /**
+     * @param username Twitter username, in any case
+     * @return number of tweets written by username
+     */
+    int countWrittenBy(String username) {
+        int[] list = positions.get(InternTable.fold(username));
+        return list == null ? 0 : list.length;
+    }
+
+    /*
+     * Growable array of positions, used while building.
+     */
+    private static class Positions {
+        private int[] items = new int[4];
+        private int size = 0;
+
+        void add(int position) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = position;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(items, size);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package twitter;
+
+/**
+ * Mutable Bloom filter of strings: a set that can answer "definitely absent"
+ * or "possibly present", in a fixed number of bits.
+ * 
+ * Each string sets k bits, chosen by double hashing of a 64-bit FNV-1a hash
+ * of its chars. Sized for an expected number of strings and a target false
+ * positive rate, as in Bloom's original analysis: m = -n ln p / (ln 2)^2 bits
+ * and k = (m / n) ln 2 hash functions.
+ * 
+ * Not thread-safe while strings are being added; safe to share for
+ * mightContain() once adding is done.
+ */
+class BloomFilter {
+
+    private final long[] bits;
+    private final int bitCount;
+    private final int hashCount;
+    /* Rep invariant:
+     *    bitCount > 0, bits.length == ceil(bitCount / 64), hashCount >= 1
+     * Abstraction function:
+     *    represents a set S of strings such that for every s added,
+     *    all hashCount bit positions of s are set
+     */
+
+    /**
+     * Make an empty filter.
+     * 
+     * @param expected expected number of strings, > 0
+     * @param falsePositiveRate target false positive rate, 0 < rate < 1
+     */
+    BloomFilter(int expected, double falsePositiveRate) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("requires 0 < falsePositiveRate < 1");
+        }
+        int n = Math.max(1, expected);
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.bitCount = (int) Math.max(64, Math.min(Integer.MAX_VALUE - 63, m));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * ln2));
+        this.bits = new long[(bitCount + 63) / 64];
+    }
+
+    /**
+     * Make an empty filter with a given size.
+     * 
+     * @param bitCount number of bits, > 0
+     * @param hashCount number of bits set per string, > 0
+     */
+    BloomFilter(int bitCount, int hashCount) {
+        if (bitCount <= 0 || hashCount <= 0) {
+            throw new IllegalArgumentException("requires bitCount > 0, hashCount > 0");
+        }
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+        this.bits = new long[(bitCount + 63) / 64];
+    }
+
+    /**
+     * @param s string to add
+     */
+    void add(String s) {
+        put(hash(s));
+    }
+
+    /**
+     * Add a string given by its hash(), reporting whether it was new.
+     * 
+     * @param hash 64-bit hash of the string to add
+     * @return true if some bit changed, so the string was definitely not in
+     *         the filter before; false if it may have been
+     */
+    boolean put(long hash) {
+        boolean changed = false;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            long word = bits[bit >>> 6];
+            changed |= (word & (1L << bit)) == 0;
+            bits[bit >>> 6] = word | (1L << bit);
+        }
+        return changed;
+    }
+
+    /**
+     * @param s string to test
+     * @return false if s was definitely never added; true if it may have been
+     */
+    boolean mightContain(String s) {
+        long hash = hash(s);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return number of bits in the filter
+     */
+    int bitCount() {
+        return bitCount;
+    }
+
+    /**
+     * @param s a string
+     * @return 64-bit hash of s, as used by add() and mightContain()
+     */
+    static long hash(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return avalanche(h);
+    }
+
+    /**
+     * Hash a case-folded range without making a string of it.
+     * 
+     * @param chars a char sequence
+     * @param start start of the range, inclusive
+     * @param end end of the range, exclusive
+     * @return hash() of chars[start..end) case-folded as by InternTable.fold
+     */
+    static long foldedHash(CharSequence chars, int start, int end) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = start; i < end; i++) {
+            h ^= InternTable.fold(chars.charAt(i));
+            h *= 0x100000001b3L;
+        }
+        return avalanche(h);
+    }
+
+    /*
+     * Final avalanche, so short strings spread over both halves.
+     */
+    private static long avalanche(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,486 @@
+package twitter;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * CompactFollowsGraph is an immutable social network (as defined by
+ * SocialNetwork) stored in compressed sparse row form.
+ * 
+ * Every user has a dense int id. The users that user u follows are
+ * followingTargets[followingStart[u] .. followingStart[u+1]), sorted by id,
+ * and the users that follow u are kept the same way, so both directions
+ * cost one int per edge.
+ * 
+ * asMap() adapts the graph back to the Map<String, Set<String>> form that
+ * SocialNetwork.influencers and other existing callers expect, without copying.
+ */
+public class CompactFollowsGraph {
+
+    private final String[] names;
+    private final InternTable ids;
+    private final UsernameDictionary dictionary;
+    private final int[] followingStart;
+    private final int[] followingTargets;
+    private final int[] followerStart;
+    private final int[] followerSources;
+    private final int keyCount;
+    private final int mapSize;
+    /* Rep invariant:
+     *    names are distinct lowercase usernames
+     *    exactly one of ids and dictionary is non-null; ids maps names[id] to
+     *    id, or dictionary.nameOf(id) == names[id] for id < names.length
+     *    followingStart.length == followerStart.length == names.length + 1,
+     *    both start at 0, are nondecreasing and end at the number of edges
+     *    each row of followingTargets and followerSources is strictly
+     *    increasing, has no self-edges, and the two are transposes of each
+     *    other
+     *    ids 0..keyCount-1 are exactly the users with at least one followee,
+     *    or that appeared as keys in the graph the instance was built from
+     *    mapSize == number of ids that are < keyCount or follow someone
+     * Abstraction function:
+     *    represents the social network in which names[u] follows names[v] iff
+     *    v is in row u of followingTargets, and whose keys are the users
+     *    0..keyCount-1
+     * Safety from rep exposure:
+     *    all arrays are private and never returned; asMap() is read-only and
+     *    reads the arrays through unmodifiable views; dictionary is shared
+     *    with the caller but only read, and ids it adds later are ignored
+     */
+
+    private CompactFollowsGraph(InternTable ids, int keyCount, int[] from, int[] to, int edgeCount) {
+        this(names(ids), ids, null, keyCount, from, to, edgeCount);
+    }
+
+    private CompactFollowsGraph(String[] names, InternTable ids, UsernameDictionary dictionary,
+                                int keyCount, int[] from, int[] to, int edgeCount) {
+        final int n = names.length;
+        this.names = names;
+        this.ids = ids;
+        this.dictionary = dictionary;
+        this.keyCount = keyCount;
+
+        this.followingStart = new int[n + 1];
+        this.followingTargets = rows(from, to, edgeCount, n, followingStart);
+        this.followerStart = new int[n + 1];
+        this.followerSources = rows(to, from, edgeCount, n, followerStart);
+
+        int size = keyCount;
+        for (int id = keyCount; id < n; id++) {
+            if (followingCount(id) > 0) {
+                size++;
+            }
+        }
+        this.mapSize = size;
+    }
+
+    private static String[] names(InternTable ids) {
+        String[] names = new String[ids.size()];
+        for (int id = 0; id < names.length; id++) {
+            names[id] = ids.nameOf(id);
+        }
+        return names;
+    }
+
+    /**
+     * Build a compact graph.
+     * 
+     * @param followsGraph
+     *            a social network (as defined by SocialNetwork), not modified;
+     *            usernames differing only in case are merged
+     * @return a compact graph equal (ignoring case) to followsGraph
+     */
+    public static CompactFollowsGraph fromGraph(Map<String, Set<String>> followsGraph) {
+        InternTable ids = new InternTable();
+        for (String user : followsGraph.keySet()) {
+            ids.internId(user, 0, user.length());
+        }
+        int keyCount = ids.size();
+
+        int edgeCount = 0;
+        for (Set<String> followed : followsGraph.values()) {
+            edgeCount += followed.size();
+        }
+        int[] from = new int[edgeCount];
+        int[] to = new int[edgeCount];
+        int e = 0;
+        for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+            String follower = entry.getKey();
+            int u = ids.findId(follower, 0, follower.length());
+            for (String followee : entry.getValue()) {
+                int v = ids.internId(followee, 0, followee.length());
+                if (u != v) {
+                    from[e] = u;
+                    to[e] = v;
+                    e++;
+                }
+            }
+        }
+        return new CompactFollowsGraph(ids, keyCount, from, to, e);
+    }
+
+    /**
+     * Build a compact graph from evidence in tweets.
+     * 
+     * @param tweets
+     *            a list of tweets providing the evidence, not modified
+     * @return a compact graph equal to SocialNetwork.guessFollowsGraph(tweets)
+     */
+    public static CompactFollowsGraph fromTweets(List<Tweet> tweets) {
+        MentionScanner scanner = new MentionScanner();
+        List<String> mentions = new ArrayList<String>();
+        InternTable ids = new InternTable();
+        int[] from = new int[16];
+        int[] to = new int[16];
+        int e = 0;
+
+        for (Tweet t : tweets) {
+            if (scanner.scan(t.getText(), mentions) == 0) {
+                continue;
+            }
+            String author = scanner.intern(t.getAuthor());
+            int u = -1;
+            for (String user : mentions) {
+                if (user == author) { // both interned by scanner
+                    continue;
+                }
+                if (u < 0) {
+                    u = ids.internId(author, 0, author.length());
+                }
+                if (e == from.length) {
+                    from = Arrays.copyOf(from, e * 2);
+                    to = Arrays.copyOf(to, e * 2);
+                }
+                from[e] = u;
+                to[e] = ids.internId(user, 0, user.length());
+                e++;
+            }
+            mentions.clear();
+        }
+        return new CompactFollowsGraph(ids, 0, from, to, e);
+    }
+
+    /**
+     * Build a compact graph from evidence in tweets, numbering users with a
+     * shared dictionary.
+     * 
+     * @param tweets
+     *            a list of tweets providing the evidence, not modified
+     * @param usernames
+     *            dictionary whose ids become the graph's user ids; authors and
+     *            mentions not in it are added
+     * @return a compact graph whose asMap() equals
+     *         SocialNetwork.guessFollowsGraph(tweets), and where
+     *         idOf(u) == usernames.find(u) for every user u in the dictionary.
+     *         So that ids stay dense and shared, its users are every username
+     *         in the dictionary after the tweets are added, including those
+     *         that do not occur in tweets: userCount() is usernames.size(),
+     *         not the number of users in the tweets. Names are looked up in
+     *         the dictionary, not copied into a table of the graph's own.
+     */
+    public static CompactFollowsGraph fromTweets(List<Tweet> tweets, UsernameDictionary usernames) {
+        MentionScanner scanner = new MentionScanner();
+        Edges edges = new Edges();
+        for (Tweet t : tweets) {
+            edges.author = -1;
+            scanner.scanIds(t.getText(), usernames, followee -> {
+                if (edges.author < 0) {
+                    edges.author = usernames.idOf(t.getAuthor());
+                }
+                if (followee != edges.author) {
+                    edges.add(edges.author, followee);
+                }
+            });
+        }
+
+        String[] names = new String[usernames.size()];
+        for (int id = 0; id < names.length; id++) {
+            names[id] = usernames.nameOf(id);
+        }
+        return new CompactFollowsGraph(names, null, usernames, 0, edges.from, edges.to, edges.count);
+    }
+
+    /*
+     * Growable list of edges, used while scanning tweets.
+     */
+    private static class Edges {
+        private int[] from = new int[16];
+        private int[] to = new int[16];
+        private int count = 0;
+        private int author;
+
+        void add(int u, int v) {
+            if (count == from.length) {
+                from = Arrays.copyOf(from, count * 2);
+                to = Arrays.copyOf(to, count * 2);
+            }
+            from[count] = u;
+            to[count] = v;
+            count++;
+        }
+    }
+
+    /*
+     * Group edges by source into CSR rows: fills start[0..n] and returns the
+     * targets, each row sorted and without duplicates.
+     */
+    private static int[] rows(int[] source, int[] target, int edgeCount, int n, int[] start) {
+        int[] counts = new int[n + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            counts[source[e] + 1]++;
+        }
+        for (int u = 0; u < n; u++) {
+            counts[u + 1] += counts[u];
+        }
+        int[] next = Arrays.copyOf(counts, n);
+        int[] grouped = new int[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            grouped[next[source[e]]++] = target[e];
+        }
+
+        // sort and deduplicate each row, compacting in place
+        int write = 0;
+        for (int u = 0; u < n; u++) {
+            int rowStart = counts[u];
+            int rowEnd = counts[u + 1];
+            Arrays.sort(grouped, rowStart, rowEnd);
+            start[u] = write;
+            for (int e = rowStart; e < rowEnd; e++) {
+                if (e == rowStart || grouped[e] != grouped[e - 1]) {
+                    grouped[write++] = grouped[e];
+                }
+            }
+        }
+        start[n] = write;
+        return write == edgeCount ? grouped : Arrays.copyOf(grouped, write);
+    }
+
+    /**
+     * @return number of distinct users
+     */
+    public int userCount() {
+        return names.length;
+    }
+
+    /**
+     * @return number of follow edges
+     */
+    public int edgeCount() {
+        return followingTargets.length;
+    }
+
+    /**
+     * @param username
+     *            Twitter username, in any case
+     * @return id of username, or -1 if not in the graph
+     */
+    public int idOf(String username) {
+        if (dictionary == null) {
+            return ids.findId(username, 0, username.length());
+        }
+        // the dictionary may have grown since this graph was built
+        int id = dictionary.find(username);
+        return id < names.length ? id : -1;
+    }
+
+    /**
+     * @param id
+     *            requires 0 <= id < userCount()
+     * @return lowercase username with that id
+     */
+    public String nameOf(int id) {
+        return names[id];
+    }
+
+    /**
+     * @param id
+     *            requires 0 <= id < userCount()
+     * @return number of users that user id follows
+     */
+    public int followingCount(int id) {
+        return followingStart[id + 1] - followingStart[id];
+    }
+
+    /**
+     * @param id
+     *            requires 0 <= id < userCount()
+     * @return number of users following user id
+     */
+    public int followerCount(int id) {
+        return followerStart[id + 1] - followerStart[id];
+    }
+
+    /**
+     * @param id
+     *            requires 0 <= id < userCount()
+     * @return ids of the users that user id follows, in increasing order
+     */
+    public int[] following(int id) {
+        return Arrays.copyOfRange(followingTargets, followingStart[id], followingStart[id + 1]);
+    }
+
+    /**
+     * @param id
+     *            requires 0 <= id < userCount()
+     * @return ids of the users following user id, in increasing order
+     */
+    public int[] followers(int id) {
+        return Arrays.copyOfRange(followerSources, followerStart[id], followerStart[id + 1]);
+    }
+
+    /**
+     * @param follower
+     *            requires 0 <= follower < userCount()
+     * @param followee
+     *            requires 0 <= followee < userCount()
+     * @return true iff follower follows followee
+     */
+    public boolean follows(int follower, int followee) {
+        return Arrays.binarySearch(followingTargets, followingStart[follower],
+                                   followingStart[follower + 1], followee) >= 0;
+    }
+
+    /*
+     * The follower rows in place, for in-package algorithms that scan every
+     * edge: the followers of u are followerSources()[followerStarts()[u] ..
+     * followerStarts()[u+1]). Callers must not modify the arrays.
+     */
+    int[] followerStarts() {
+        return followerStart;
+    }
+
+    int[] followerSources() {
+        return followerSources;
+    }
+
+    /**
+     * @return a read-only social network (as defined by SocialNetwork) view of
+     *         this graph, with lowercase usernames. Its keys are the users that
+     *         follow someone, plus any keys of the graph this was built from.
+     */
+    public Map<String, Set<String>> asMap() {
+        return new MapView();
+    }
+
+    /*
+     * @return id of the user whose lowercase username equals o, or -1
+     */
+    private int exactIdOf(Object o) {
+        if (!(o instanceof String)) {
+            return -1;
+        }
+        String username = (String) o;
+        int id = idOf(username);
+        return id >= 0 && names[id].equals(username) ? id : -1;
+    }
+
+    /*
+     * @return true iff id is a key of asMap()
+     */
+    private boolean isKey(int id) {
+        return id >= 0 && (id < keyCount || followingCount(id) > 0);
+    }
+
+    /*
+     * Read-only Map view over the CSR arrays.
+     */
+    private class MapView extends AbstractMap<String, Set<String>> {
+
+        @Override public int size() {
+            return mapSize;
+        }
+
+        @Override public boolean containsKey(Object key) {
+            return isKey(exactIdOf(key));
+        }
+
+        @Override public Set<String> get(Object key) {
+            int id = exactIdOf(key);
+            return isKey(id) ? new RowView(followingTargets, followingStart, id) : null;
+        }
+
+        @Override public Set<Map.Entry<String, Set<String>>> entrySet() {
+            return new AbstractSet<Map.Entry<String, Set<String>>>() {
+                @Override public int size() {
+                    return mapSize;
+                }
+
+                @Override public Iterator<Map.Entry<String, Set<String>>> iterator() {
+                    return new Iterator<Map.Entry<String, Set<String>>>() {
+                        private int next = advance(0);
+
+                        private int advance(int from) {
+                            int id = from;
+                            while (id < names.length && !isKey(id)) {
+                                id++;
+                            }
+                            return id;
+                        }
+
+                        @Override public boolean hasNext() {
+                            return next < names.length;
+                        }
+
+                        @Override public Map.Entry<String, Set<String>> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            int id = next;
+                            next = advance(id + 1);
+                            return new SimpleImmutableEntry<String, Set<String>>(
+                                    names[id], new RowView(followingTargets, followingStart, id));
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    /*
+     * Read-only Set view of one CSR row, as usernames.
+     */
+    private class RowView extends AbstractSet<String> {
+        private final int[] targets;
+        private final int start;
+        private final int end;
+
+        RowView(int[] targets, int[] starts, int id) {
+            this.targets = targets;
+            this.start = starts[id];
+            this.end = starts[id + 1];
+        }
+
+        @Override public int size() {
+            return end - start;
+        }
+
+        @Override public boolean contains(Object o) {
+            int id = exactIdOf(o);
+            return id >= 0 && Arrays.binarySearch(targets, start, end, id) >= 0;
+        }
+
+        @Override public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                private int next = start;
+
+                @Override public boolean hasNext() {
+                    return next < end;
+                }
+
+                @Override public String next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return names[targets[next++]];
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package twitter;
+
+/**
+ * Mutable Count-Min sketch: approximate counts of strings in a fixed number of
+ * counters.
+ * 
+ * The counters form depth rows of width columns; a string increments one
+ * counter per row, chosen by double hashing of its 64-bit hash, and its
+ * estimate is the least of those counters. Updates are conservative: only
+ * the counters equal to that least value are incremented, which never makes
+ * an estimate worse. After N increments in total, an estimate is never below
+ * the true count, and exceeds it by more than (e / width) * N with
+ * probability at most e^-depth (Cormode and Muthukrishnan).
+ * 
+ * Not thread-safe.
+ */
+class CountMinSketch {
+
+    private final int[] counts;
+    private final int width;
+    private final int depth;
+    private long total = 0;
+    /* Rep invariant:
+     *    width > 0, depth > 0, counts.length == width * depth, counts >= 0
+     *    total is the number of increments so far
+     * Abstraction function:
+     *    represents a multiset of strings, where the count of s is
+     *    approximated by min over rows r of counts[r * width + column(r, s)]
+     */
+
+    /**
+     * Make an empty sketch.
+     * 
+     * @param width counters per row, > 0
+     * @param depth number of rows, > 0
+     */
+    CountMinSketch(int width, int depth) {
+        if (width <= 0 || depth <= 0 || (long) width * depth > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("requires width > 0, depth > 0");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counts = new int[width * depth];
+    }
+
+    /**
+     * Count one more occurrence of a string.
+     * 
+     * @param hash BloomFilter.hash() of the string
+     * @return the string's new estimate
+     */
+    int increment(long hash) {
+        total++;
+        int estimate = estimate(hash);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int r = 0; r < depth; r++) {
+            int cell = r * width + Math.floorMod(h1 + r * h2, width);
+            if (counts[cell] == estimate) {
+                counts[cell] = estimate + 1;
+            }
+        }
+        return estimate + 1;
+    }
+
+    /**
+     * @param hash BloomFilter.hash() of a string
+     * @return estimated count of the string, never less than its true count
+     */
+    int estimate(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        int min = Integer.MAX_VALUE;
+        for (int r = 0; r < depth; r++) {
+            min = Math.min(min, counts[r * width + Math.floorMod(h1 + r * h2, width)]);
+        }
+        return min;
+    }
+
+    /**
+     * @return bound on how much estimates exceed true counts, with
+     *         probability at least 1 - e^-depth
+     */
+    double errorBound() {
+        return Math.E / width * total;
+    }
+}
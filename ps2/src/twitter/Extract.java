@@ -1,6 +1,7 @@
 package twitter;
 
 import java.time.Instant;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -23,7 +24,9 @@ public class Extract {
      *         every tweet in the list.
      */
     public static Timespan getTimespan(List<Tweet> tweets) {
+        long timer = Metrics.start();
         if (tweets.size() == 0) {
+            Metrics.record(Metrics.Op.GET_TIMESPAN, timer, 0, 0);
             return null;  // behavior not specified, do whatever
         }
         
@@ -40,6 +43,7 @@ public class Extract {
             }
         }
         
+        Metrics.record(Metrics.Op.GET_TIMESPAN, timer, tweets.size(), 1);
         return new Timespan(early, late);
 
     }
@@ -60,51 +64,89 @@ public class Extract {
      *         include a username at most once.
      */
     public static Set<String> getMentionedUsers(List<Tweet> tweets) {
-        // it's not specified the returned set contain uppercase/lowercase username
+        // it's not specified the returned set contain uppercase/lowercase username,
+        // choose lowercase to match the keys of SocialNetwork.guessFollowsGraph
+        long timer = Metrics.start();
         Set<String> mentioned = new HashSet<String>();
+        MentionScanner scanner = new MentionScanner();
+        long mentions = 0;
         
         for (Tweet tt: tweets) {
-            String txt = tt.getText();
-            char[] chars = txt.toCharArray();
-            
-            int i = 0;
-            while (i < chars.length - 1) {
-                if (isStartOfUsername(chars, i)) {
-                    int j = i + 1;
-                    StringBuilder sb = new StringBuilder();    
-                    while (j < chars.length && isValidCharInUsername(chars[j])){
-                        sb.append(chars[j]);
-                        j++;  
-                    }
-                    String name = sb.toString();
-                    mentioned.add(name.toUpperCase());
-                    i = j;
-                }
-                i += 1;     
-            }
+            mentions += scanner.scan(tt.getText(), mentioned);
         }
+        Metrics.record(Metrics.Op.GET_MENTIONED_USERS, timer, tweets.size(), mentions);
         return mentioned;
     }
-    
-    private static boolean isStartOfUsername(char[] chars, int i) {
+
+    /**
+     * Get ids of the usernames mentioned in a list of tweets.
+     * 
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method.
+     * @param usernames
+     *            dictionary that assigns the ids; mentioned usernames not in it
+     *            are added
+     * @return the ids of exactly the usernames in getMentionedUsers(tweets)
+     */
+    public static BitSet getMentionedUserIds(List<Tweet> tweets, UsernameDictionary usernames) {
+        BitSet mentioned = new BitSet();
+        MentionScanner scanner = new MentionScanner();
         
-        if (i == 0) {
-            if (chars[i] == '@' && isValidCharInUsername(chars[i+1])) {
-                return true;
-            }     
-        } else if (!isValidCharInUsername(chars[i-1]) && chars[i] == '@' && isValidCharInUsername(chars[i+1])) {
-            return true;
+        for (Tweet tt: tweets) {
+            scanner.scanIds(tt.getText(), usernames, mentioned::set);
         }
-
-        return false;
+        return mentioned;
     }
-    
-    private static boolean isValidCharInUsername(char c) {
-        if (Character.isLetterOrDigit(c) || c == '_' || c == '-') {
-            return true;
+
+    /**
+     * Get the time period spanned by the tweets in a store.
+     * 
+     * @param store
+     *            store of tweets with distinct ids
+     * @return the same timespan as getTimespan(store.asList())
+     */
+    public static Timespan getTimespan(TweetStore store) {
+        if (store.size() == 0) {
+            return null;  // behavior not specified, do whatever
         }
         
-        return false;
+        long earlySecond = store.epochSecond(0);
+        int earlyNano = store.nano(0);
+        long lateSecond = earlySecond;
+        int lateNano = earlyNano;
+        
+        for (int r = 1; r < store.size(); r++) {
+            long s = store.epochSecond(r);
+            int ns = store.nano(r);
+            if (s < earlySecond || (s == earlySecond && ns < earlyNano)) {
+                earlySecond = s;
+                earlyNano = ns;
+            }
+            if (s > lateSecond || (s == lateSecond && ns > lateNano)) {
+                lateSecond = s;
+                lateNano = ns;
+            }
+        }
+        return new Timespan(Instant.ofEpochSecond(earlySecond, earlyNano),
+                            Instant.ofEpochSecond(lateSecond, lateNano));
+    }
+
+    /**
+     * Get usernames mentioned in the tweets in a store.
+     * 
+     * @param store
+     *            store of tweets with distinct ids
+     * @return the same set as getMentionedUsers(store.asList())
+     */
+    public static Set<String> getMentionedUsers(TweetStore store) {
+        Set<String> mentioned = new HashSet<String>();
+        MentionScanner scanner = new MentionScanner();
+        TweetStore.TextCursor texts = store.new TextCursor();
+        
+        for (int r = 0; r < store.size(); r++) {
+            scanner.scan(texts.text(r), mentioned);
+        }
+        return mentioned;
     }
 
     /* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
@@ -3,7 +3,10 @@ package twitter;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Filter consists of methods that filter a list of tweets for those matching a
@@ -27,15 +30,43 @@ public class Filter {
      *         in the same order as in the input list.
      */
     public static List<Tweet> writtenBy(List<Tweet> tweets, String username) {
+        long timer = Metrics.start();
         List<Tweet> answer = new ArrayList<Tweet>();
         
         // not specified when tweets is empty, do whatever
         if (tweets.size() == 0) {
+            Metrics.record(Metrics.Op.WRITTEN_BY, timer, 0, 0);
             return answer;
         }
         // not specified when user with username does not write a tweet in tweets
         for (Tweet t: tweets) {
-            if (t.getAuthor().toLowerCase().equals(username.toLowerCase())) {
+            if (t.getAuthor().equalsIgnoreCase(username)) {
+                answer.add(t);
+            }
+        }
+        Metrics.record(Metrics.Op.WRITTEN_BY, timer, tweets.size(), answer.size());
+        return answer;
+    }
+
+    /**
+     * Find tweets written by a particular user, identified by id.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method.
+     * @param userId
+     *            id of a username in usernames
+     * @param usernames
+     *            dictionary that assigned userId, not modified by this method
+     * @return the same list as writtenBy(tweets, usernames.nameOf(userId)),
+     *         found by comparing each author char by char with the folded
+     *         username, without a per-tweet lookup in the dictionary
+     */
+    public static List<Tweet> writtenBy(List<Tweet> tweets, int userId, UsernameDictionary usernames) {
+        List<Tweet> answer = new ArrayList<Tweet>();
+        final String username = usernames.nameOf(userId);
+        for (Tweet t: tweets) {
+            String author = t.getAuthor();
+            if (InternTable.equalsFolded(username, author, 0, author.length())) {
                 answer.add(t);
             }
         }
@@ -53,10 +84,12 @@ public class Filter {
      *         in the same order as in the input list.
      */
     public static List<Tweet> inTimespan(List<Tweet> tweets, Timespan timespan) {
+        long timer = Metrics.start();
         List<Tweet> answer = new ArrayList<Tweet>();
         
         // not specified when tweets is empty, do whatever
         if (tweets.size() == 0) {
+            Metrics.record(Metrics.Op.IN_TIMESPAN, timer, 0, 0);
             return answer;
         }
         
@@ -73,6 +106,7 @@ public class Filter {
                 answer.add(t);
             }
         }
+        Metrics.record(Metrics.Op.IN_TIMESPAN, timer, tweets.size(), answer.size());
         return answer;
     }
 
@@ -92,28 +126,180 @@ public class Filter {
      *         same order as in the input list.
      */
     public static List<Tweet> containing(List<Tweet> tweets, List<String> words) {
+        long timer = Metrics.start();
         List<Tweet> answer = new ArrayList<Tweet>();
         
         // not specified when tweets is empty, do whatever
         if (tweets.size() == 0) {
+            Metrics.record(Metrics.Op.CONTAINING, timer, 0, 0);
             return answer;
         } 
         
-        List<String> wordsLower = words.stream()
-                                        .map(s -> s.toLowerCase())
-                                        .collect(Collectors.toList());
-        
+        KeywordMatcher matcher = new KeywordMatcher(words);
         for (Tweet t : tweets) {
-            String [] arr = t.getText().split("(/n| )+");
-            
-            for (int i = 0; i < arr.length; i++) {
-                if (wordsLower.contains(arr[i].toLowerCase())) {
-                    answer.add(t);
-                    break;
-                }
+            if (matcher.matches(t.getText())) {
+                answer.add(t);
+            }
+        }
+        
+        Metrics.record(Metrics.Op.CONTAINING, timer, tweets.size(), answer.size());
+        return answer;
+    }
+
+    /**
+     * Find tweets that contain the words a matcher was compiled from.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method.
+     * @param matcher
+     *            compiled word list, reusable across calls
+     * @return the same list as containing(tweets, words) for the words matcher
+     *         was compiled from
+     */
+    public static List<Tweet> containing(List<Tweet> tweets, KeywordMatcher matcher) {
+        return matcher.containing(tweets);
+    }
+
+    /**
+     * Find tweets written by a particular user, lazily.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this
+     *            method, and not to be modified until the stream is consumed.
+     * @param username
+     *            Twitter username, required to be a valid Twitter username as
+     *            defined by Tweet.getAuthor()'s spec.
+     * @return an ordered stream of the tweets writtenBy(tweets, username)
+     *         returns, in the same order, which reads the list only as far as
+     *         its consumer needs: limit(20) stops after the 20th match.
+     */
+    public static Stream<Tweet> streamWrittenBy(List<Tweet> tweets, String username) {
+        return lazily(tweets, t -> t.getAuthor().equalsIgnoreCase(username));
+    }
+
+    /**
+     * Find tweets that were sent during a particular timespan, lazily.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this
+     *            method, and not to be modified until the stream is consumed.
+     * @param timespan
+     *            timespan
+     * @return an ordered stream of the tweets inTimespan(tweets, timespan)
+     *         returns, in the same order, which reads the list only as far as
+     *         its consumer needs.
+     */
+    public static Stream<Tweet> streamInTimespan(List<Tweet> tweets, Timespan timespan) {
+        Instant start = timespan.getStart();
+        Instant end = timespan.getEnd();
+        return lazily(tweets, t -> !t.getTimestamp().isBefore(start) && !t.getTimestamp().isAfter(end));
+    }
+
+    /**
+     * Find tweets that contain certain words, lazily.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this
+     *            method, and not to be modified until the stream is consumed.
+     * @param words
+     *            a list of words to search for in the tweets.
+     *            A word is a nonempty sequence of nonspace characters.
+     * @return an ordered stream of the tweets containing(tweets, words)
+     *         returns, in the same order, which reads the list only as far as
+     *         its consumer needs.
+     */
+    public static Stream<Tweet> streamContaining(List<Tweet> tweets, List<String> words) {
+        KeywordMatcher matcher = new KeywordMatcher(words);
+        return lazily(tweets, t -> matcher.matches(t.getText()));
+    }
+
+    /*
+     * Stream the tweets that satisfy a predicate, in list order. Random-access
+     * lists get a TweetSpliterator, which splits by index range for parallel
+     * streams; other lists are filtered through their own spliterator.
+     */
+    private static Stream<Tweet> lazily(List<Tweet> tweets, Predicate<Tweet> predicate) {
+        if (tweets instanceof RandomAccess) {
+            return StreamSupport.stream(new TweetSpliterator(tweets, predicate, 0, tweets.size()), false);
+        }
+        return tweets.stream().filter(predicate);
+    }
+
+    /**
+     * Find tweets in a store written by a particular user.
+     * 
+     * @param store
+     *            store of tweets with distinct ids
+     * @param username
+     *            Twitter username, required to be a valid Twitter username as
+     *            defined by Tweet.getAuthor()'s spec.
+     * @return the same list as writtenBy(store.asList(), username); only the
+     *         matching tweets are materialized
+     */
+    public static List<Tweet> writtenBy(TweetStore store, String username) {
+        List<Tweet> answer = new ArrayList<Tweet>();
+        int author = store.usernames().find(username);
+        if (author < 0) {
+            return answer;
+        }
+        for (int r = 0; r < store.size(); r++) {
+            if (store.authorId(r) == author) {
+                answer.add(store.get(r));
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Find tweets in a store that were sent during a particular timespan.
+     * 
+     * @param store
+     *            store of tweets with distinct ids
+     * @param timespan
+     *            timespan
+     * @return the same list as inTimespan(store.asList(), timespan); only the
+     *         matching tweets are materialized
+     */
+    public static List<Tweet> inTimespan(TweetStore store, Timespan timespan) {
+        List<Tweet> answer = new ArrayList<Tweet>();
+        long startSecond = timespan.getStart().getEpochSecond();
+        int startNano = timespan.getStart().getNano();
+        long endSecond = timespan.getEnd().getEpochSecond();
+        int endNano = timespan.getEnd().getNano();
+        
+        for (int r = 0; r < store.size(); r++) {
+            long s = store.epochSecond(r);
+            int ns = store.nano(r);
+            boolean afterStart = s > startSecond || (s == startSecond && ns >= startNano);
+            boolean beforeEnd = s < endSecond || (s == endSecond && ns <= endNano);
+            if (afterStart && beforeEnd) {
+                answer.add(store.get(r));
             }
         }
+        return answer;
+    }
+
+    /**
+     * Find tweets in a store that contain certain words.
+     * 
+     * @param store
+     *            store of tweets with distinct ids
+     * @param words
+     *            a list of words to search for in the tweets. 
+     *            A word is a nonempty sequence of nonspace characters.
+     * @return the same list as containing(store.asList(), words); only the
+     *         matching tweets are materialized
+     */
+    public static List<Tweet> containing(TweetStore store, List<String> words) {
+        List<Tweet> answer = new ArrayList<Tweet>();
+        KeywordMatcher matcher = new KeywordMatcher(words);
+        TweetStore.TextCursor texts = store.new TextCursor();
         
+        for (int r = 0; r < store.size(); r++) {
+            if (matcher.matches(texts.text(r))) {
+                answer.add(store.get(r));
+            }
+        }
         return answer;
     }
 
@@ -0,0 +1,182 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * FollowerRanking is an immutable ranking of every user in a social network
+ * (as defined by SocialNetwork) by follower count.
+ * 
+ * Users are ranked in descending order of follower count; users with the same
+ * count are ranked in alphabetical order of their lowercase username, so the
+ * ranking is deterministic. Users with no followers are ranked too.
+ * 
+ * Building a ranking costs O(E + V) for E follow edges and V users, because
+ * only follower counts are computed up front. topK(k) costs O(V log k); the
+ * full ranking is sorted, in O(V log V), the first time ranked() is called.
+ * 
+ * A ranking is thread-safe.
+ */
+public class FollowerRanking {
+
+    private final InternTable users;
+    private final String[] names;
+    private final int[] followers;
+    private volatile int[] ranked = null;
+    /* Rep invariant:
+     *    names.length == followers.length
+     *    names are distinct lowercase usernames, and names[id] is the string
+     *    with that id in users
+     *    followers[id] >= 0 is the number of distinct users following names[id]
+     *    ranked is null or a permutation of ids 0..names.length-1 in ranking
+     *    order
+     * Abstraction function:
+     *    represents the ranking names[ranked[0]], names[ranked[1]], ..., where
+     *    user names[id] has followers[id] followers
+     * Safety from rep exposure:
+     *    all fields are private, never returned and users is not modified after
+     *    construction; query methods return new lists
+     * Thread safety argument:
+     *    all fields but ranked are final and never modified after
+     *    construction; ranked is volatile, and is only ever set to a fully
+     *    sorted array, so threads racing to sort it compute the same value
+     */
+
+    /**
+     * Rank the users of a social network.
+     * 
+     * @param followsGraph
+     *            a social network (as defined by SocialNetwork), not modified
+     */
+    public FollowerRanking(Map<String, Set<String>> followsGraph) {
+        this.users = new InternTable();
+
+        int edgeCount = 0;
+        for (Set<String> followed : followsGraph.values()) {
+            edgeCount += followed.size();
+        }
+        int[] from = new int[edgeCount];
+        int[] to = new int[edgeCount];
+        int e = 0;
+        for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+            String follower = entry.getKey();
+            int followerId = users.internId(follower, 0, follower.length());
+            for (String followee : entry.getValue()) {
+                from[e] = followerId;
+                to[e] = users.internId(followee, 0, followee.length());
+                e++;
+            }
+        }
+
+        final int userCount = users.size();
+        this.names = new String[userCount];
+        for (int id = 0; id < userCount; id++) {
+            names[id] = users.nameOf(id);
+        }
+        this.followers = countFollowers(from, to, userCount);
+    }
+
+    /*
+     * Count distinct followers of each user. Usernames that differ only in
+     * case were merged into one id, so one follower may list the same followee
+     * more than once; edges are grouped by follower (counting sort) so that a
+     * per-followee stamp of the last follower counted removes the duplicates.
+     */
+    private static int[] countFollowers(int[] from, int[] to, int userCount) {
+        int[] start = new int[userCount + 1];
+        for (int f : from) {
+            start[f + 1]++;
+        }
+        for (int id = 0; id < userCount; id++) {
+            start[id + 1] += start[id];
+        }
+        int[] next = Arrays.copyOf(start, userCount);
+        int[] grouped = new int[to.length];
+        for (int e = 0; e < from.length; e++) {
+            grouped[next[from[e]]++] = to[e];
+        }
+
+        int[] counts = new int[userCount];
+        int[] lastFollower = new int[userCount];
+        Arrays.fill(lastFollower, -1);
+        for (int follower = 0; follower < userCount; follower++) {
+            for (int e = start[follower]; e < start[follower + 1]; e++) {
+                int followee = grouped[e];
+                if (followee != follower && lastFollower[followee] != follower) {
+                    lastFollower[followee] = follower;
+                    counts[followee]++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    /*
+     * Ranking order: more followers first, then alphabetical.
+     */
+    private int compare(int a, int b) {
+        int cmp = Integer.compare(followers[b], followers[a]);
+        return cmp != 0 ? cmp : names[a].compareTo(names[b]);
+    }
+
+    /**
+     * @return number of distinct users in the social network
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @return every distinct user in the social network, in lowercase, in
+     *         ranking order
+     */
+    public List<String> ranked() {
+        int[] order = ranked;
+        if (order == null) {
+            order = new int[names.length];
+            for (int id = 0; id < order.length; id++) {
+                order[id] = id;
+            }
+            IntSorter.sort(order, this::compare);
+            ranked = order;
+        }
+        List<String> answer = new ArrayList<String>(order.length);
+        for (int id : order) {
+            answer.add(names[id]);
+        }
+        return answer;
+    }
+
+    /**
+     * Find the most followed users, without ranking everyone.
+     * 
+     * @param k
+     *            number of users wanted, k >= 0
+     * @return the first min(k, size()) users of ranked(), in the same order
+     */
+    public List<String> topK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("requires k >= 0");
+        }
+        int[] top = IntSorter.firstK(names.length, k, this::compare);
+        List<String> answer = new ArrayList<String>(top.length);
+        for (int id : top) {
+            answer.add(names[id]);
+        }
+        return answer;
+    }
+
+    /**
+     * @param username
+     *            Twitter username, in any case
+     * @return number of distinct users following username, 0 if username is
+     *         not in the social network
+     */
+    public int followerCount(String username) {
+        int id = users.findId(username, 0, username.length());
+        return id < 0 ? 0 : followers[id];
+    }
+}
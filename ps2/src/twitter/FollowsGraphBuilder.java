@@ -0,0 +1,148 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * FollowsGraphBuilder keeps a follows graph (as defined by SocialNetwork) up
+ * to date while tweets arrive one at a time.
+ * 
+ * After accepting some tweets, snapshot() equals what
+ * SocialNetwork.guessFollowsGraph would return for those tweets: Ernie follows
+ * Bert iff Ernie @-mentioned Bert in one of them. Usernames are lowercase.
+ * 
+ * Accepting a tweet costs amortized O(length of text + mentions). Snapshots
+ * are read-only and do not change when more tweets are accepted; the sets in
+ * a snapshot are shared with the builder until the builder next needs to
+ * change them, and are only copied then.
+ * 
+ * A builder is mutable and not thread-safe.
+ */
+public class FollowsGraphBuilder {
+
+    private final MentionScanner scanner = new MentionScanner();
+    private final List<String> mentions = new ArrayList<String>();
+    private final Map<String, Followed> graph = new HashMap<String, Followed>();
+    private int generation = 0;
+    private long tweetsSeen = 0;
+    /* Rep invariant:
+     *    every key of graph and every username in its sets is lowercase and
+     *    interned by scanner
+     *    no set in graph is empty, and no user follows themselves
+     *    followed.generation <= generation; a set whose generation is older
+     *    than generation may be shared with a snapshot and must not be mutated
+     *    mentions is empty between calls
+     * Abstraction function:
+     *    represents the follows graph { author -> graph.get(author).users }
+     *    guessed from the tweetsSeen tweets accepted so far
+     * Safety from rep exposure:
+     *    snapshots wrap shared sets in unmodifiable views, and a shared set is
+     *    copied before it is changed, so callers can neither change the
+     *    builder nor see later changes
+     */
+
+    /*
+     * The users one author follows, tagged with the generation in which the
+     * set was created.
+     */
+    private static class Followed {
+        private Set<String> users;
+        private int generation;
+
+        Followed(Set<String> users, int generation) {
+            this.users = users;
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * Add the evidence in one tweet to the graph.
+     * 
+     * @param tweet
+     *            a tweet
+     */
+    public void accept(Tweet tweet) {
+        accept(tweet.getAuthor(), tweet.getText());
+    }
+
+    /*
+     * Add the evidence in one tweet, given by its author and text.
+     */
+    void accept(String tweetAuthor, String text) {
+        tweetsSeen++;
+        if (scanner.scan(text, mentions) == 0) {
+            return;
+        }
+        String author = scanner.intern(tweetAuthor);
+        Followed followed = graph.get(author);
+
+        for (String user : mentions) {
+            if (user == author) { // both interned by scanner
+                continue;
+            }
+            if (followed == null) {
+                followed = new Followed(new HashSet<String>(), generation);
+                graph.put(author, followed);
+            } else if (followed.generation < generation) {
+                if (followed.users.contains(user)) {
+                    continue;
+                }
+                followed.users = new HashSet<String>(followed.users);
+                followed.generation = generation;
+            }
+            followed.users.add(user);
+        }
+        mentions.clear();
+    }
+
+    /**
+     * Add the evidence in several tweets to the graph.
+     * 
+     * @param tweets
+     *            tweets, not modified by this method
+     */
+    public void acceptAll(List<Tweet> tweets) {
+        for (Tweet t : tweets) {
+            accept(t);
+        }
+    }
+
+    /**
+     * @return number of tweets accepted so far
+     */
+    public long tweetsSeen() {
+        return tweetsSeen;
+    }
+
+    /**
+     * @return an unmodifiable follows graph for the tweets accepted so far,
+     *         as defined by SocialNetwork.guessFollowsGraph; later calls to
+     *         accept() do not change it
+     */
+    public Map<String, Set<String>> snapshot() {
+        Map<String, Set<String>> snapshot = new HashMap<String, Set<String>>(graph.size() * 4 / 3 + 1);
+        for (Map.Entry<String, Followed> e : graph.entrySet()) {
+            snapshot.put(e.getKey(), Collections.unmodifiableSet(e.getValue().users));
+        }
+        generation++;
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * @return a new mutable follows graph for the tweets accepted so far, as
+     *         defined by SocialNetwork.guessFollowsGraph, sharing nothing with
+     *         this builder
+     */
+    public Map<String, Set<String>> toMap() {
+        Map<String, Set<String>> copy = new HashMap<String, Set<String>>(graph.size() * 4 / 3 + 1);
+        for (Map.Entry<String, Followed> e : graph.entrySet()) {
+            copy.put(e.getKey(), new HashSet<String>(e.getValue().users));
+        }
+        return copy;
+    }
+}
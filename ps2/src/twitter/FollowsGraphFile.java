@@ -0,0 +1,212 @@
+package twitter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * FollowsGraphFile saves a social network (as defined by SocialNetwork) in a
+ * compact binary snapshot, and loads it back, so that a restart can read the
+ * graph instead of recomputing it with SocialNetwork.guessFollowsGraph.
+ * 
+ * A snapshot file is:
+ * 
+ *     magic "FGS1"
+ *     varint userCount, then userCount usernames, each a varint byte length
+ *         and UTF-8 bytes; a user's id is its position in this list
+ *     varint keyCount, then keyCount adjacency lists in increasing order of
+ *         key id, each
+ *             varint gap from the previous key id (the first is absolute)
+ *             varint followeeCount
+ *             followeeCount varint gaps between increasing followee ids
+ *                 (the first is absolute)
+ *     4-byte big-endian CRC-32 of everything before it
+ * 
+ * where varints are unsigned, 7 bits per byte, least significant group first.
+ */
+public class FollowsGraphFile {
+
+    private static final int MAGIC = 0x46475331; // "FGS1"
+
+    /**
+     * Write a snapshot of a social network, replacing the file's contents.
+     * 
+     * @param file
+     *            file to write
+     * @param followsGraph
+     *            a social network (as defined by SocialNetwork), not modified
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path file, Map<String, Set<String>> followsGraph) throws IOException {
+        Map<String, Integer> ids = new HashMap<String, Integer>();
+        List<String> names = new ArrayList<String>();
+        for (String user : followsGraph.keySet()) {
+            idOf(user, ids, names);
+        }
+        for (Set<String> followees : followsGraph.values()) {
+            for (String followee : followees) {
+                idOf(followee, ids, names);
+            }
+        }
+
+        CRC32 crc = new CRC32();
+        try (OutputStream raw = Files.newOutputStream(file);
+             CheckedOutputStream out = new CheckedOutputStream(new BufferedOutputStream(raw, 1 << 16), crc)) {
+            writeInt(out, MAGIC);
+            writeVarint(out, names.size());
+            for (String name : names) {
+                byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+                writeVarint(out, utf8.length);
+                out.write(utf8);
+            }
+
+            // keys were numbered first, in iteration order, so key ids increase
+            writeVarint(out, followsGraph.size());
+            int previousKey = 0;
+            for (Map.Entry<String, Set<String>> e : followsGraph.entrySet()) {
+                int keyId = ids.get(e.getKey());
+                writeVarint(out, keyId - previousKey);
+                previousKey = keyId;
+                int[] followees = new int[e.getValue().size()];
+                int k = 0;
+                for (String followee : e.getValue()) {
+                    followees[k++] = ids.get(followee);
+                }
+                Arrays.sort(followees);
+                writeVarint(out, followees.length);
+                for (int i = 0; i < followees.length; i++) {
+                    writeVarint(out, i == 0 ? followees[0] : followees[i] - followees[i - 1]);
+                }
+            }
+            out.flush();
+            writeInt(raw, (int) crc.getValue());
+        }
+    }
+
+    /*
+     * Give name the next id, if it has none yet.
+     */
+    private static void idOf(String name, Map<String, Integer> ids, List<String> names) {
+        if (!ids.containsKey(name)) {
+            ids.put(name, names.size());
+            names.add(name);
+        }
+    }
+
+    /**
+     * Load a snapshot written by write().
+     * 
+     * The file is memory-mapped and checked against its CRC before it is
+     * decoded, in time proportional to its size.
+     * 
+     * @param file
+     *            snapshot file to read
+     * @return a mutable social network equal to the one that was written
+     * @throws IOException if the file cannot be read, is not a snapshot, or
+     *         fails its checksum
+     */
+    public static Map<String, Set<String>> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 8 || size > Integer.MAX_VALUE) {
+                throw new IOException(file + " is not a follows graph snapshot");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.BIG_ENDIAN);
+
+            ByteBuffer body = buffer.duplicate();
+            body.limit((int) size - 4);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if ((int) crc.getValue() != buffer.getInt((int) size - 4)) {
+                throw new IOException(file + " failed its checksum");
+            }
+            buffer.limit((int) size - 4);
+            try {
+                return decode(buffer);
+            } catch (RuntimeException e) {
+                throw new IOException(file + " is not a valid follows graph snapshot", e);
+            }
+        }
+    }
+
+    private static Map<String, Set<String>> decode(ByteBuffer in) throws IOException {
+        if (in.getInt() != MAGIC) {
+            throw new IOException("bad magic number");
+        }
+        int userCount = readVarint(in);
+        String[] names = new String[userCount];
+        byte[] scratch = new byte[64];
+        for (int id = 0; id < userCount; id++) {
+            int length = readVarint(in);
+            if (scratch.length < length) {
+                scratch = new byte[length];
+            }
+            in.get(scratch, 0, length);
+            names[id] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        int keyCount = readVarint(in);
+        Map<String, Set<String>> graph = new HashMap<String, Set<String>>(keyCount * 4 / 3 + 1);
+        int keyId = 0;
+        for (int k = 0; k < keyCount; k++) {
+            keyId += readVarint(in);
+            int followeeCount = readVarint(in);
+            Set<String> followees = new HashSet<String>(followeeCount * 4 / 3 + 1);
+            int followee = 0;
+            for (int i = 0; i < followeeCount; i++) {
+                followee += readVarint(in);
+                followees.add(names[followee]);
+            }
+            graph.put(names[keyId], followees);
+        }
+        if (in.hasRemaining()) {
+            throw new IOException("trailing bytes after adjacency lists");
+        }
+        return graph;
+    }
+
+    static void writeInt(OutputStream out, int value) throws IOException {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    static void writeVarint(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
@@ -0,0 +1,453 @@
+package twitter;
+
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * FollowsGraphSummary is an immutable, mergeable summary of a social network
+ * (as defined by SocialNetwork), for computing one follows graph over tweets
+ * that are split across shards.
+ * 
+ * Each shard summarizes the graph guessed from its own tweets; merge() takes
+ * the union of two summaries, and is associative and commutative with empty()
+ * as identity, so a coordinator can merge shard summaries in any grouping and
+ * order and get the summary of the graph guessed from all the tweets. Because
+ * Ernie follows Bert iff Ernie mentioned Bert in some tweet, the union of the
+ * shard graphs is exactly that graph.
+ * 
+ * A summary keeps its users sorted by lowercase username, the users each one
+ * follows as a sorted array of ids, and each user's in-degree (number of
+ * followers), so influencers() needs no further pass over the edges.
+ * 
+ * writeTo() and readFrom() move a summary between processes. The wire format
+ * is:
+ * 
+ *     magic "FGM1"
+ *     varint userCount, then userCount usernames in increasing order, each a
+ *         varint byte length and UTF-8 bytes; a user's id is its position
+ *     for each user in id order: varint followeeCount, then followeeCount
+ *         varint gaps between increasing followee ids (the first is absolute)
+ *     4-byte big-endian CRC-32 of everything before it
+ * 
+ * with varints as in FollowsGraphFile. In-degrees are not sent; readFrom()
+ * recomputes them.
+ */
+public class FollowsGraphSummary {
+
+    private static final int MAGIC = 0x46474d31; // "FGM1"
+    // readFrom() allocates at most this much ahead of the bytes actually read
+    private static final int READ_CHUNK = 1 << 12;
+    private static final FollowsGraphSummary EMPTY =
+            new FollowsGraphSummary(new String[0], new int[1], new int[0]);
+
+    private final String[] names;
+    private final int[] start;
+    private final int[] targets;
+    private final int[] inDegree;
+    /* Rep invariant:
+     *    names are distinct lowercase usernames in increasing order
+     *    start.length == names.length + 1, start[0] == 0, start is
+     *    nondecreasing and start[names.length] == targets.length
+     *    each row targets[start[u] .. start[u+1]) is strictly increasing,
+     *    within 0..names.length-1, and does not contain u
+     *    inDegree[v] == number of rows containing v
+     * Abstraction function:
+     *    represents the social network over users names in which names[u]
+     *    follows names[v] iff v is in row u
+     * Safety from rep exposure:
+     *    all arrays are private and never returned; asMap() returns new sets
+     */
+
+    private FollowsGraphSummary(String[] names, int[] start, int[] targets) {
+        this.names = names;
+        this.start = start;
+        this.targets = targets;
+        this.inDegree = new int[names.length];
+        for (int target : targets) {
+            inDegree[target]++;
+        }
+    }
+
+    /**
+     * @return the summary of the graph with no users
+     */
+    public static FollowsGraphSummary empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Summarize a social network.
+     * 
+     * @param followsGraph
+     *            a social network (as defined by SocialNetwork), not modified;
+     *            usernames differing only in case are merged
+     * @return its summary; every key and followee is a user of it
+     */
+    public static FollowsGraphSummary of(Map<String, Set<String>> followsGraph) {
+        InternTable table = new InternTable();
+        for (Map.Entry<String, Set<String>> e : followsGraph.entrySet()) {
+            table.internId(e.getKey(), 0, e.getKey().length());
+            for (String followee : e.getValue()) {
+                table.internId(followee, 0, followee.length());
+            }
+        }
+        final int n = table.size();
+        String[] names = new String[n];
+        for (int id = 0; id < n; id++) {
+            names[id] = table.nameOf(id);
+        }
+        Arrays.sort(names);
+        Map<String, Integer> ids = new HashMap<String, Integer>(n * 4 / 3 + 1);
+        for (int id = 0; id < n; id++) {
+            ids.put(names[id], id);
+        }
+
+        List<Set<Integer>> rows = new ArrayList<Set<Integer>>(n);
+        for (int id = 0; id < n; id++) {
+            rows.add(new HashSet<Integer>());
+        }
+        for (Map.Entry<String, Set<String>> e : followsGraph.entrySet()) {
+            String key = e.getKey();
+            int u = ids.get(table.intern(key, 0, key.length()));
+            for (String followee : e.getValue()) {
+                int v = ids.get(table.intern(followee, 0, followee.length()));
+                if (u != v) {
+                    rows.get(u).add(v);
+                }
+            }
+        }
+        int[] start = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            start[u + 1] = start[u] + rows.get(u).size();
+        }
+        int[] targets = new int[start[n]];
+        for (int u = 0; u < n; u++) {
+            int i = start[u];
+            for (int v : rows.get(u)) {
+                targets[i++] = v;
+            }
+            Arrays.sort(targets, start[u], start[u + 1]);
+        }
+        return new FollowsGraphSummary(names, start, targets);
+    }
+
+    /**
+     * Summarize the social network guessed from tweets.
+     * 
+     * @param tweets
+     *            a list of tweets providing the evidence, not modified
+     * @return the summary of SocialNetwork.guessFollowsGraph(tweets)
+     */
+    public static FollowsGraphSummary fromTweets(List<Tweet> tweets) {
+        return of(SocialNetwork.guessFollowsGraph(tweets));
+    }
+
+    /**
+     * Merge two summaries.
+     * 
+     * Costs O(users + edges) of the two summaries: both name lists are
+     * sorted, so each one's ids map to the merged ids in increasing order,
+     * which keeps each remapped row sorted, and rows are merged pairwise.
+     * 
+     * @param that
+     *            another summary
+     * @return the summary of the union of the two graphs: its users are the
+     *         users of either, and u follows v iff u follows v in either
+     */
+    public FollowsGraphSummary merge(FollowsGraphSummary that) {
+        if (that.names.length == 0) {
+            return this;
+        }
+        if (this.names.length == 0) {
+            return that;
+        }
+        int[] thisIds = new int[this.names.length];
+        int[] thatIds = new int[that.names.length];
+        List<String> merged = new ArrayList<String>(this.names.length + that.names.length);
+        int i = 0;
+        int j = 0;
+        while (i < this.names.length || j < that.names.length) {
+            int c = i == this.names.length ? 1
+                  : j == that.names.length ? -1
+                  : this.names[i].compareTo(that.names[j]);
+            if (c <= 0) {
+                thisIds[i++] = merged.size();
+            }
+            if (c >= 0) {
+                thatIds[j++] = merged.size();
+            }
+            merged.add(c <= 0 ? this.names[i - 1] : that.names[j - 1]);
+        }
+
+        final int n = merged.size();
+        int[] start = new int[n + 1];
+        int[] targets = new int[this.targets.length + that.targets.length];
+        int e = 0;
+        i = 0;
+        j = 0;
+        for (int u = 0; u < n; u++) {
+            int a = -1;
+            int b = -1;
+            if (i < thisIds.length && thisIds[i] == u) {
+                a = i++;
+            }
+            if (j < thatIds.length && thatIds[j] == u) {
+                b = j++;
+            }
+            int p = a < 0 ? 0 : this.start[a];
+            int pEnd = a < 0 ? 0 : this.start[a + 1];
+            int q = b < 0 ? 0 : that.start[b];
+            int qEnd = b < 0 ? 0 : that.start[b + 1];
+            while (p < pEnd || q < qEnd) {
+                int x = p < pEnd ? thisIds[this.targets[p]] : Integer.MAX_VALUE;
+                int y = q < qEnd ? thatIds[that.targets[q]] : Integer.MAX_VALUE;
+                if (x <= y) {
+                    p++;
+                }
+                if (y <= x) {
+                    q++;
+                }
+                targets[e++] = Math.min(x, y);
+            }
+            start[u + 1] = e;
+        }
+        return new FollowsGraphSummary(merged.toArray(new String[n]), start, Arrays.copyOf(targets, e));
+    }
+
+    /**
+     * @return number of users
+     */
+    public int userCount() {
+        return names.length;
+    }
+
+    /**
+     * @return number of follow edges
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * @param username
+     *            Twitter username, in any case
+     * @return number of users following username, 0 if not a user
+     */
+    public int followerCount(String username) {
+        int id = Arrays.binarySearch(names, InternTable.fold(username));
+        return id < 0 ? 0 : inDegree[id];
+    }
+
+    /**
+     * @return a new mutable social network (as defined by SocialNetwork) with
+     *         lowercase usernames, whose keys are the users who follow someone.
+     *         For a summary made by fromTweets, or by merging such summaries,
+     *         it equals SocialNetwork.guessFollowsGraph of all their tweets.
+     */
+    public Map<String, Set<String>> asMap() {
+        Map<String, Set<String>> graph = new HashMap<String, Set<String>>();
+        for (int u = 0; u < names.length; u++) {
+            if (start[u] == start[u + 1]) {
+                continue;
+            }
+            Set<String> followees = new HashSet<String>();
+            for (int e = start[u]; e < start[u + 1]; e++) {
+                followees.add(names[targets[e]]);
+            }
+            graph.put(names[u], followees);
+        }
+        return graph;
+    }
+
+    /**
+     * @return every user, as lowercase usernames, in descending order of
+     *         follower count, users with the same count in alphabetical
+     *         order: the order SocialNetwork.influencers uses
+     */
+    public List<String> influencers() {
+        int[] order = new int[names.length];
+        for (int id = 0; id < order.length; id++) {
+            order[id] = id;
+        }
+        // ids are in alphabetical order already, and the sort is stable
+        IntSorter.sort(order, (a, b) -> Integer.compare(inDegree[b], inDegree[a]));
+        List<String> ranked = new ArrayList<String>(order.length);
+        for (int id : order) {
+            ranked.add(names[id]);
+        }
+        return Collections.unmodifiableList(ranked);
+    }
+
+    /**
+     * Write this summary in the wire format. The stream is flushed, not closed.
+     * 
+     * @param out
+     *            stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        CRC32 crc = new CRC32();
+        OutputStream buffered = new BufferedOutputStream(out, 1 << 16);
+        CheckedOutputStream checked = new CheckedOutputStream(buffered, crc);
+        FollowsGraphFile.writeInt(checked, MAGIC);
+        FollowsGraphFile.writeVarint(checked, names.length);
+        for (String name : names) {
+            byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+            FollowsGraphFile.writeVarint(checked, utf8.length);
+            checked.write(utf8);
+        }
+        for (int u = 0; u < names.length; u++) {
+            FollowsGraphFile.writeVarint(checked, start[u + 1] - start[u]);
+            int previous = 0;
+            for (int e = start[u]; e < start[u + 1]; e++) {
+                FollowsGraphFile.writeVarint(checked, targets[e] - previous);
+                previous = targets[e];
+            }
+        }
+        FollowsGraphFile.writeInt(buffered, (int) crc.getValue());
+        buffered.flush();
+    }
+
+    /**
+     * Read one summary written by writeTo(). Reads exactly the bytes of that
+     * summary, so several summaries can be sent on one stream.
+     * 
+     * @param in
+     *            stream to read from; not closed
+     * @return the summary that was written
+     * @throws IOException if the stream cannot be read, or does not hold a
+     *         valid summary; counts and lengths are not trusted before the
+     *         checksum is, so a corrupt stream fails this way rather than by
+     *         running out of memory
+     */
+    public static FollowsGraphSummary readFrom(InputStream in) throws IOException {
+        CRC32 crc = new CRC32();
+        CheckedInputStream checked = new CheckedInputStream(in, crc);
+        if (readInt(checked) != MAGIC) {
+            throw new IOException("not a follows graph summary");
+        }
+        int n = readVarint(checked);
+        // every name takes at least one byte, so grow with the names read
+        String[] names = new String[Math.min(n, READ_CHUNK)];
+        for (int id = 0; id < n; id++) {
+            if (id == names.length) {
+                names = Arrays.copyOf(names, (int) Math.min(n, 2L * id));
+            }
+            byte[] utf8 = readBytes(checked, readVarint(checked));
+            names[id] = new String(utf8, StandardCharsets.UTF_8);
+            if (id > 0 && names[id - 1].compareTo(names[id]) >= 0) {
+                throw new IOException("usernames out of order");
+            }
+        }
+        int[] start = new int[n + 1];
+        int[] targets = new int[16];
+        int e = 0;
+        for (int u = 0; u < n; u++) {
+            int count = readVarint(checked);
+            int target = 0;
+            for (int k = 0; k < count; k++) {
+                int gap = readVarint(checked);
+                target += gap;
+                if ((k > 0 && gap == 0) || target >= n || target == u) {
+                    throw new IOException("bad adjacency list for " + names[u]);
+                }
+                if (e == targets.length) {
+                    targets = Arrays.copyOf(targets, e * 2);
+                }
+                targets[e++] = target;
+            }
+            start[u + 1] = e;
+        }
+        int expected = (int) crc.getValue();
+        if (readInt(in) != expected) {
+            throw new IOException("follows graph summary failed its checksum");
+        }
+        return new FollowsGraphSummary(names, start, Arrays.copyOf(targets, e));
+    }
+
+    private static int readInt(InputStream in) throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = (value << 8) | readByte(in);
+        }
+        return value;
+    }
+
+    private static int readVarint(InputStream in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (shift > 28) {
+                throw new IOException("varint too long");
+            }
+            b = readByte(in);
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        if (value < 0) {
+            throw new IOException("varint out of range");
+        }
+        return value;
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("follows graph summary is truncated");
+        }
+        return b;
+    }
+
+    /*
+     * Read length bytes, growing the array as they arrive, so a bad length
+     * ends in EOFException instead of a huge allocation.
+     */
+    private static byte[] readBytes(InputStream in, int length) throws IOException {
+        byte[] bytes = new byte[Math.min(length, READ_CHUNK)];
+        int read = 0;
+        while (read < length) {
+            if (read == bytes.length) {
+                bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * read));
+            }
+            int r = in.read(bytes, read, bytes.length - read);
+            if (r < 0) {
+                throw new EOFException("follows graph summary is truncated");
+            }
+            read += r;
+        }
+        return bytes;
+    }
+
+    @Override public boolean equals(Object thatObject) {
+        if (!(thatObject instanceof FollowsGraphSummary)) {
+            return false;
+        }
+        FollowsGraphSummary that = (FollowsGraphSummary) thatObject;
+        return Arrays.equals(names, that.names) && Arrays.equals(start, that.start)
+                && Arrays.equals(targets, that.targets);
+    }
+
+    @Override public int hashCode() {
+        return Arrays.hashCode(names) * 31 + Arrays.hashCode(targets);
+    }
+
+    @Override public String toString() {
+        return "FollowsGraphSummary(" + names.length + " users, " + targets.length + " edges)";
+    }
+}
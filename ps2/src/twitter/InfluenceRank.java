@@ -0,0 +1,307 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * InfluenceRank is an immutable PageRank scoring of the users of a follows
+ * graph, an alternative to the follower-count ranking of
+ * SocialNetwork.influencers.
+ * 
+ * A user's score is the stationary probability that a random walker who
+ * repeatedly moves from a user to someone that user follows (with probability
+ * damping) or jumps to a uniformly random user (otherwise) is at that user. So
+ * being followed by a user with a high score counts for more than being
+ * followed by one with a low score. Users who follow no one spread their score
+ * uniformly over all users. Scores are positive and sum to 1.
+ * 
+ * Scores are computed by power iteration over the follower rows of a
+ * CompactFollowsGraph, in primitive arrays. Each iteration pulls every user's
+ * new score from its followers, so users can be split across fork/join tasks
+ * with no shared writes. Iteration stops when the L1 distance between two
+ * iterations is at most the tolerance, or after maxIterations.
+ */
+public class InfluenceRank {
+
+    /** Damping used by compute(graph): the usual 0.85. */
+    public static final double DEFAULT_DAMPING = 0.85;
+    /** Tolerance used by compute(graph). */
+    public static final double DEFAULT_TOLERANCE = 1e-10;
+    /** Iteration cap used by compute(graph). */
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    /*
+     * Below this many users a task does its work directly instead of forking.
+     */
+    private static final int MIN_CHUNK = 4096;
+
+    private final CompactFollowsGraph graph;
+    private final double[] scores;
+    private final int iterations;
+    private final boolean converged;
+    /* Rep invariant:
+     *    scores.length == graph.userCount(), every score > 0, and they sum to 1
+     *    (up to rounding)
+     *    iterations >= 0
+     * Abstraction function:
+     *    represents the scoring in which user graph.nameOf(id) has score
+     *    scores[id], reached after iterations iterations, within tolerance iff
+     *    converged
+     * Safety from rep exposure:
+     *    scores is private and never returned; graph is immutable
+     */
+
+    private InfluenceRank(CompactFollowsGraph graph, double[] scores, int iterations, boolean converged) {
+        this.graph = graph;
+        this.scores = scores;
+        this.iterations = iterations;
+        this.converged = converged;
+    }
+
+    /**
+     * Score a follows graph with the default parameters, using the common
+     * fork/join pool.
+     * 
+     * @param graph
+     *            a follows graph
+     * @return its PageRank scores
+     */
+    public static InfluenceRank compute(CompactFollowsGraph graph) {
+        return compute(graph, DEFAULT_DAMPING, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS,
+                       ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Score a follows graph.
+     * 
+     * @param graph
+     *            a follows graph
+     * @param damping
+     *            probability of following an edge rather than jumping,
+     *            0 <= damping < 1
+     * @param tolerance
+     *            stop when an iteration changes the scores by at most this much
+     *            in L1 distance, >= 0
+     * @param maxIterations
+     *            stop after this many iterations even if not converged, >= 1
+     * @param pool
+     *            pool to run on; its parallelism decides the number of cores used
+     * @return its PageRank scores
+     */
+    public static InfluenceRank compute(CompactFollowsGraph graph, double damping, double tolerance,
+                                        int maxIterations, ForkJoinPool pool) {
+        if (!(damping >= 0 && damping < 1) || !(tolerance >= 0) || maxIterations < 1) {
+            throw new IllegalArgumentException("requires 0 <= damping < 1, tolerance >= 0, maxIterations >= 1");
+        }
+        final int n = graph.userCount();
+        if (n == 0) {
+            return new InfluenceRank(graph, new double[0], 0, true);
+        }
+        int[] outDegree = new int[n];
+        for (int u = 0; u < n; u++) {
+            outDegree[u] = graph.followingCount(u);
+        }
+        int[] followerStart = graph.followerStarts();
+        int[] followerSources = graph.followerSources();
+        int chunk = Math.max(MIN_CHUNK, n / (pool.getParallelism() * 4));
+
+        double[] scores = new double[n];
+        double[] next = new double[n];
+        double[] share = new double[n];
+        Arrays.fill(scores, 1.0 / n);
+        int iteration = 0;
+        boolean converged = false;
+        while (iteration < maxIterations && !converged) {
+            iteration++;
+            double dangling = pool.invoke(new ShareTask(outDegree, scores, share, 0, n, chunk));
+            double base = (1 - damping + damping * dangling) / n;
+            double delta = pool.invoke(new PullTask(followerStart, followerSources, share, scores, next,
+                                                    base, damping, 0, n, chunk));
+            double[] swap = scores;
+            scores = next;
+            next = swap;
+            converged = delta <= tolerance;
+        }
+        return new InfluenceRank(graph, scores, iteration, converged);
+    }
+
+    /*
+     * Sets share[u] = scores[u] / outDegree[u] for u in [from..to), and
+     * returns the total score of users in that range who follow no one.
+     */
+    private static class ShareTask extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] outDegree;
+        private final double[] scores;
+        private final double[] share;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        ShareTask(int[] outDegree, double[] scores, double[] share, int from, int to, int chunk) {
+            this.outDegree = outDegree;
+            this.scores = scores;
+            this.share = share;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override protected Double compute() {
+            if (to - from > chunk) {
+                int mid = (from + to) >>> 1;
+                ShareTask left = new ShareTask(outDegree, scores, share, from, mid, chunk);
+                left.fork();
+                double right = new ShareTask(outDegree, scores, share, mid, to, chunk).compute();
+                return left.join() + right;
+            }
+            double dangling = 0;
+            for (int u = from; u < to; u++) {
+                if (outDegree[u] == 0) {
+                    share[u] = 0;
+                    dangling += scores[u];
+                } else {
+                    share[u] = scores[u] / outDegree[u];
+                }
+            }
+            return dangling;
+        }
+    }
+
+    /*
+     * Sets next[v] = base + damping * (sum of share[u] over followers u of v)
+     * for v in [from..to), and returns the L1 distance from scores over that
+     * range.
+     */
+    private static class PullTask extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] followerStart;
+        private final int[] followerSources;
+        private final double[] share;
+        private final double[] scores;
+        private final double[] next;
+        private final double base;
+        private final double damping;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        PullTask(int[] followerStart, int[] followerSources, double[] share, double[] scores,
+                 double[] next, double base, double damping, int from, int to, int chunk) {
+            this.followerStart = followerStart;
+            this.followerSources = followerSources;
+            this.share = share;
+            this.scores = scores;
+            this.next = next;
+            this.base = base;
+            this.damping = damping;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override protected Double compute() {
+            if (to - from > chunk) {
+                int mid = (from + to) >>> 1;
+                PullTask left = new PullTask(followerStart, followerSources, share, scores, next,
+                                             base, damping, from, mid, chunk);
+                left.fork();
+                double right = new PullTask(followerStart, followerSources, share, scores, next,
+                                            base, damping, mid, to, chunk).compute();
+                return left.join() + right;
+            }
+            double delta = 0;
+            for (int v = from; v < to; v++) {
+                double sum = 0;
+                for (int e = followerStart[v]; e < followerStart[v + 1]; e++) {
+                    sum += share[followerSources[e]];
+                }
+                double score = base + damping * sum;
+                delta += Math.abs(score - scores[v]);
+                next[v] = score;
+            }
+            return delta;
+        }
+    }
+
+    /**
+     * @return number of users scored
+     */
+    public int size() {
+        return scores.length;
+    }
+
+    /**
+     * @return number of iterations run
+     */
+    public int iterations() {
+        return iterations;
+    }
+
+    /**
+     * @return true iff the last iteration changed the scores by at most the
+     *         tolerance, false if iteration stopped at the cap
+     */
+    public boolean converged() {
+        return converged;
+    }
+
+    /**
+     * @param username
+     *            Twitter username, in any case
+     * @return score of username, or 0 if not in the graph
+     */
+    public double score(String username) {
+        int id = graph.idOf(username);
+        return id < 0 ? 0 : scores[id];
+    }
+
+    /**
+     * @return every user in the graph, as lowercase usernames, in descending
+     *         order of score; users with equal scores in alphabetical order
+     */
+    public List<String> ranked() {
+        int[] order = new int[scores.length];
+        for (int id = 0; id < order.length; id++) {
+            order[id] = id;
+        }
+        IntSorter.sort(order, this::compare);
+        return namesOf(order);
+    }
+
+    /**
+     * Find the highest scored users, without sorting everyone: costs
+     * O(V log k) for V users.
+     * 
+     * @param k
+     *            number of users wanted, >= 0
+     * @return the first min(k, size()) users of ranked()
+     */
+    public List<String> topK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("requires k >= 0");
+        }
+        return namesOf(IntSorter.firstK(scores.length, k, this::compare));
+    }
+
+    /*
+     * Ranking order: higher score first, then alphabetical.
+     */
+    private int compare(int a, int b) {
+        int c = Double.compare(scores[b], scores[a]);
+        return c != 0 ? c : graph.nameOf(a).compareTo(graph.nameOf(b));
+    }
+
+    private List<String> namesOf(int[] ids) {
+        List<String> names = new ArrayList<String>(ids.length);
+        for (int id : ids) {
+            names.add(graph.nameOf(id));
+        }
+        return names;
+    }
+}
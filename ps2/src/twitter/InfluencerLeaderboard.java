@@ -0,0 +1,326 @@
+package twitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * InfluencerLeaderboard ranks users by follower count over a sliding window of
+ * recent tweets, updated as tweets arrive.
+ * 
+ * Follows are guessed as in SocialNetwork.guessFollowsGraph: Ernie follows
+ * Bert iff Ernie @-mentioned Bert (as defined by Extract.getMentionedUsers) in
+ * a tweet inside the window. Users are ranked as in FollowerRanking: by
+ * follower count, descending, then alphabetically by lowercase username; users
+ * with no followers in the window are not ranked.
+ * 
+ * Time is divided into buckets of fixed length, and the window is the last
+ * ceil(window / bucket) buckets, ending with the bucket of the latest tweet or
+ * of the time passed to advanceTo(). So a tweet counts for at least
+ * window - bucket and at most window after its timestamp. A follow edge is
+ * kept once per bucket it appears in, and leaves the graph when the last such
+ * bucket expires.
+ * 
+ * Users are numbered internally; when more than half of the numbered users
+ * have no edge left in the window, the numbering is rebuilt from the live
+ * users, so memory stays proportional to the window, not to every user ever
+ * seen.
+ * 
+ * Accepting a tweet costs O(mentions * log n) for n ranked users, expiring a
+ * bucket costs O(edges in it * log n), renumbering costs O(users + edges in
+ * the window), and topK(k) costs O(k + log n).
+ * 
+ * A leaderboard is mutable and not thread-safe.
+ */
+public class InfluencerLeaderboard {
+
+    private final long bucketMillis;
+    private final int bucketCount;
+    private UsernameDictionary users = new UsernameDictionary();
+    private MentionScanner scanner = new MentionScanner();
+    private final Deque<Bucket> buckets = new ArrayDeque<Bucket>();
+    private Map<Long, Edge> edges = new HashMap<Long, Edge>();
+    private int[] followers = new int[16];
+    private int[] endpoints = new int[16];
+    private int liveUsers = 0;
+    private final TreeSet<Integer> ranking = new TreeSet<Integer>(this::compare);
+    private long currentBucket = Long.MIN_VALUE;
+    /* Rep invariant:
+     *    bucketMillis > 0, bucketCount > 0
+     *    buckets are in increasing order of seq, all in
+     *    (currentBucket - bucketCount, currentBucket]
+     *    edges maps (follower id << 32 | followee id) to the number of buckets
+     *    whose edge list contains that key, which is > 0; no edge is a self-loop
+     *    followers[id] is the number of keys in edges with followee id
+     *    endpoints[id] is the number of keys in edges with follower or
+     *    followee id, and liveUsers is the number of ids with endpoints[id] > 0
+     *    ranking contains exactly the ids with followers[id] > 0
+     * Abstraction function:
+     *    represents the leaderboard of the follows graph { edges }, where users
+     *    are the names in the dictionary
+     * Safety from rep exposure:
+     *    all fields are private; only Strings, ints and new lists are returned
+     */
+
+    // don't renumber users while fewer than this many are dead
+    private static final int MIN_DEAD_TO_COMPACT = 64;
+
+    /*
+     * The distinct follow edges seen in one time bucket.
+     */
+    private static class Bucket {
+        private final long seq;
+        private long[] keys = new long[8];
+        private int size = 0;
+
+        Bucket(long seq) {
+            this.seq = seq;
+        }
+
+        void add(long key) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            keys[size++] = key;
+        }
+    }
+
+    private static long edgeKey(int follower, int followee) {
+        return (long) follower << 32 | followee;
+    }
+
+    private static int follower(long key) {
+        return (int) (key >>> 32);
+    }
+
+    private static int followee(long key) {
+        return (int) key;
+    }
+
+    /*
+     * The number of live buckets containing one follow edge, and the last
+     * bucket it was added to (so it is added at most once per bucket).
+     */
+    private static class Edge {
+        private int buckets;
+        private long lastBucket;
+    }
+
+    /**
+     * Make an empty leaderboard.
+     * 
+     * @param window
+     *            length of the sliding window, positive
+     * @param bucket
+     *            expiry granularity, at least one millisecond and at most window
+     */
+    public InfluencerLeaderboard(Duration window, Duration bucket) {
+        if (bucket.toMillis() < 1 || bucket.compareTo(window) > 0) {
+            throw new IllegalArgumentException("requires 1ms <= bucket <= window");
+        }
+        this.bucketMillis = bucket.toMillis();
+        long count = (window.toMillis() + bucketMillis - 1) / bucketMillis;
+        this.bucketCount = (int) Math.min(Integer.MAX_VALUE, count);
+    }
+
+    /**
+     * Add one tweet to the window, first expiring buckets that the window has
+     * slid past.
+     * 
+     * @param tweet
+     *            a tweet, whose timestamp is not in an earlier bucket than any
+     *            tweet or time already given to this leaderboard
+     */
+    public void accept(Tweet tweet) {
+        advanceTo(tweet.getTimestamp());
+        final Bucket bucket = buckets.peekLast();
+        final int author = users.idOf(tweet.getAuthor());
+        scanner.scanIds(tweet.getText(), users, mentioned -> {
+            if (mentioned != author) {
+                addEdge(bucket, edgeKey(author, mentioned));
+            }
+        });
+    }
+
+    /**
+     * Slide the window forward to end at the given time, expiring old buckets.
+     * 
+     * @param now
+     *            a time not in an earlier bucket than any tweet or time already
+     *            given to this leaderboard
+     */
+    public void advanceTo(Instant now) {
+        long seq = Math.floorDiv(now.toEpochMilli(), bucketMillis);
+        if (seq < currentBucket) {
+            throw new IllegalArgumentException("time went backwards: " + now);
+        }
+        if (seq == currentBucket) {
+            return;
+        }
+        currentBucket = seq;
+        while (!buckets.isEmpty() && buckets.peekFirst().seq <= seq - bucketCount) {
+            expire(buckets.removeFirst());
+        }
+        int dead = users.size() - liveUsers;
+        if (dead >= MIN_DEAD_TO_COMPACT && dead > liveUsers) {
+            compact();
+        }
+        buckets.addLast(new Bucket(seq));
+    }
+
+    private void addEdge(Bucket bucket, long key) {
+        Edge edge = edges.get(key);
+        if (edge == null) {
+            edge = new Edge();
+            edges.put(key, edge);
+            changeEndpoints(follower(key), +1);
+            changeEndpoints(followee(key), +1);
+            changeFollowers(followee(key), +1);
+        } else if (edge.lastBucket == bucket.seq) {
+            return;
+        }
+        edge.buckets++;
+        edge.lastBucket = bucket.seq;
+        bucket.add(key);
+    }
+
+    private void expire(Bucket bucket) {
+        for (int i = 0; i < bucket.size; i++) {
+            long key = bucket.keys[i];
+            Edge edge = edges.get(key);
+            if (--edge.buckets == 0) {
+                edges.remove(key);
+                changeEndpoints(follower(key), -1);
+                changeEndpoints(followee(key), -1);
+                changeFollowers(followee(key), -1);
+            }
+        }
+    }
+
+    private void changeFollowers(int user, int delta) {
+        if (user >= followers.length) {
+            followers = Arrays.copyOf(followers, Math.max(user + 1, followers.length * 2));
+        }
+        if (followers[user] > 0) {
+            ranking.remove(user);
+        }
+        followers[user] += delta;
+        if (followers[user] > 0) {
+            ranking.add(user);
+        }
+    }
+
+    private void changeEndpoints(int user, int delta) {
+        if (user >= endpoints.length) {
+            endpoints = Arrays.copyOf(endpoints, Math.max(user + 1, endpoints.length * 2));
+        }
+        if (endpoints[user] == 0) {
+            liveUsers++;
+        }
+        endpoints[user] += delta;
+        if (endpoints[user] == 0) {
+            liveUsers--;
+        }
+    }
+
+    /*
+     * Renumber the users that still have an edge, dropping every other
+     * username. Costs O(users + edges).
+     */
+    private void compact() {
+        UsernameDictionary live = new UsernameDictionary();
+        int[] newIds = new int[users.size()];
+        int[] newFollowers = new int[Math.max(16, liveUsers)];
+        int[] newEndpoints = new int[newFollowers.length];
+        for (int id = 0; id < users.size(); id++) {
+            if (id < endpoints.length && endpoints[id] > 0) {
+                int newId = live.idOf(users.nameOf(id));
+                newIds[id] = newId;
+                newFollowers[newId] = id < followers.length ? followers[id] : 0;
+                newEndpoints[newId] = endpoints[id];
+            }
+        }
+        Map<Long, Edge> newEdges = new HashMap<Long, Edge>();
+        for (Map.Entry<Long, Edge> entry : edges.entrySet()) {
+            long key = entry.getKey();
+            newEdges.put(edgeKey(newIds[follower(key)], newIds[followee(key)]), entry.getValue());
+        }
+        for (Bucket bucket : buckets) {
+            for (int i = 0; i < bucket.size; i++) {
+                long key = bucket.keys[i];
+                bucket.keys[i] = edgeKey(newIds[follower(key)], newIds[followee(key)]);
+            }
+        }
+        List<Integer> ranked = new ArrayList<Integer>(ranking);
+        ranking.clear();
+        users = live;
+        scanner = new MentionScanner();
+        edges = newEdges;
+        followers = newFollowers;
+        endpoints = newEndpoints;
+        for (int id : ranked) {
+            ranking.add(newIds[id]);
+        }
+    }
+
+    /*
+     * Ranking order: more followers first, then alphabetical.
+     */
+    private int compare(Integer a, Integer b) {
+        if (followers[a] != followers[b]) {
+            return Integer.compare(followers[b], followers[a]);
+        }
+        return users.nameOf(a).compareTo(users.nameOf(b));
+    }
+
+    /**
+     * @return number of users with at least one follower in the window
+     */
+    public int size() {
+        return ranking.size();
+    }
+
+    /**
+     * @param k
+     *            number of users wanted, >= 0
+     * @return the first min(k, size()) users of the ranking, as lowercase
+     *         usernames, in ranking order
+     */
+    public List<String> topK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("requires k >= 0");
+        }
+        List<String> top = new ArrayList<String>(Math.min(k, ranking.size()));
+        Iterator<Integer> it = ranking.iterator();
+        while (top.size() < k && it.hasNext()) {
+            top.add(users.nameOf(it.next()));
+        }
+        return top;
+    }
+
+    /**
+     * @param username
+     *            Twitter username
+     * @return number of distinct users who follow username in the window,
+     *         case-insensitively
+     */
+    public int followerCount(String username) {
+        int id = users.find(username);
+        return id < 0 || id >= followers.length ? 0 : followers[id];
+    }
+
+    /*
+     * @return number of usernames currently numbered, live or not; for tests
+     */
+    int numberedUsers() {
+        return users.size();
+    }
+}
@@ -0,0 +1,122 @@
+package twitter;
+
+/**
+ * IntSorter sorts arrays of ints (usually ids or positions) by an arbitrary
+ * order, or selects the first few of them, without boxing them.
+ */
+final class IntSorter {
+
+    /**
+     * An order on ints.
+     */
+    interface IntComparator {
+        /**
+         * @return negative, zero or positive as a is before, tied with, or
+         *         after b
+         */
+        int compare(int a, int b);
+    }
+
+    private IntSorter() {
+        // static methods only
+    }
+
+    /**
+     * Stable sort.
+     * 
+     * @param values array to sort in place
+     * @param order order to sort by; ties keep their relative order
+     */
+    static void sort(int[] values, IntComparator order) {
+        mergeSort(values, new int[values.length], 0, values.length, order);
+    }
+
+    /**
+     * Select the first k of the ints 0..n-1 in an order, without sorting all
+     * of them: O(n log k), with a heap of the best k seen so far.
+     * 
+     * @param n number of ints, >= 0
+     * @param k number wanted, >= 0
+     * @param order order to select by; must not tie distinct ints
+     * @return the first min(k, n) of 0..n-1 under order, in order
+     */
+    static int[] firstK(int n, int k, IntComparator order) {
+        int[] heap = new int[Math.min(k, n)];
+        int heapSize = 0;
+        // a "max-heap" under order: heap[0] is the last of the best seen so far
+        for (int value = 0; value < n && heap.length > 0; value++) {
+            if (heapSize < heap.length) {
+                heap[heapSize] = value;
+                siftUp(heap, heapSize++, order);
+            } else if (order.compare(value, heap[0]) < 0) {
+                heap[0] = value;
+                siftDown(heap, 0, heapSize, order);
+            }
+        }
+
+        int[] first = new int[heapSize];
+        while (heapSize > 0) {
+            first[heapSize - 1] = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, 0, heapSize, order);
+        }
+        return first;
+    }
+
+    private static void siftUp(int[] heap, int i, IntComparator order) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (order.compare(heap[i], heap[parent]) <= 0) {
+                return;
+            }
+            swap(heap, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int i, int size, IntComparator order) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int last = left;
+            if (left + 1 < size && order.compare(heap[left + 1], heap[left]) > 0) {
+                last = left + 1;
+            }
+            if (order.compare(heap[last], heap[i]) <= 0) {
+                return;
+            }
+            swap(heap, i, last);
+            i = last;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+
+    private static void mergeSort(int[] values, int[] tmp, int from, int to, IntComparator order) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(values, tmp, from, mid, order);
+        mergeSort(values, tmp, mid, to, order);
+        if (order.compare(values[mid - 1], values[mid]) <= 0) {
+            return;
+        }
+        System.arraycopy(values, from, tmp, from, to - from);
+        int i = from;
+        int j = mid;
+        for (int k = from; k < to; k++) {
+            if (j >= to || (i < mid && order.compare(tmp[i], tmp[j]) <= 0)) {
+                values[k] = tmp[i++];
+            } else {
+                values[k] = tmp[j++];
+            }
+        }
+    }
+}
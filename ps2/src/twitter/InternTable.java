@@ -0,0 +1,259 @@
+package twitter;
+
+import java.util.Arrays;
+
+/**
+ * InternTable is a mutable table of case-folded strings, looked up directly
+ * from a range of characters in some other CharSequence.
+ * 
+ * Looking up a range that folds to a string already in the table returns the
+ * canonical String instance without allocating; only the first sight of a
+ * name creates a new String.
+ * 
+ * Each distinct string also gets a dense int id, in the order strings were
+ * first added, so callers can keep per-string data in primitive arrays.
+ * 
+ * Case folding is done one char at a time with Character.toLowerCase(char).
+ * 
+ * Not thread-safe.
+ */
+class InternTable {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private String[] keys;
+    private int[] hashes;
+    private int[] ids;
+    private String[] byId;
+    private int size;
+    /* Rep invariant:
+     *    keys.length == hashes.length == ids.length, and is a power of two
+     *    size == number of non-null entries in keys, size * 2 <= keys.length
+     *    every key is already case-folded, and appears at most once
+     *    hashes[i] == foldedHash(keys[i], 0, keys[i].length()) for non-null keys[i]
+     *    ids of non-null keys are exactly 0..size-1, and byId[ids[i]] == keys[i]
+     * Abstraction function:
+     *    represents the list of strings byId[0..size-1], with no duplicates
+     */
+
+    /**
+     * Make an empty InternTable.
+     */
+    InternTable() {
+        keys = new String[INITIAL_CAPACITY];
+        hashes = new int[INITIAL_CAPACITY];
+        ids = new int[INITIAL_CAPACITY];
+        byId = new String[INITIAL_CAPACITY / 2];
+    }
+
+    /**
+     * @return number of distinct strings in this table
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Fold one character.
+     * 
+     * @param c a character
+     * @return the case-folded form of c used by this table
+     */
+    static char fold(char c) {
+        return Character.toLowerCase(c);
+    }
+
+    /**
+     * Fold a whole string, independent of the default locale, unlike
+     * String.toLowerCase().
+     * 
+     * @param s a string
+     * @return s with every char folded, as the same instance if it already was
+     */
+    static String fold(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (fold(c) != c) {
+                char[] folded = s.toCharArray();
+                for (int j = i; j < folded.length; j++) {
+                    folded[j] = fold(folded[j]);
+                }
+                return new String(folded);
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Hash the case-folded form of chars[start..end).
+     * 
+     * @return the hash that intern(chars, start, end, hash) expects
+     */
+    static int foldedHash(CharSequence chars, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + fold(chars.charAt(i));
+        }
+        return h;
+    }
+
+    /**
+     * Get the canonical folded string for chars[start..end), adding it if absent.
+     * 
+     * @param chars characters to read, not modified
+     * @param start first index, inclusive
+     * @param end last index, exclusive. Requires start < end.
+     * @param hash foldedHash(chars, start, end), which callers may compute while
+     *             scanning
+     * @return the canonical case-folded string for the range
+     */
+    String intern(CharSequence chars, int start, int end, int hash) {
+        int slot = internSlot(chars, start, end, hash); // may grow keys
+        return keys[slot];
+    }
+
+    /**
+     * Get the canonical folded string for chars[start..end), adding it if absent.
+     */
+    String intern(CharSequence chars, int start, int end) {
+        return intern(chars, start, end, foldedHash(chars, start, end));
+    }
+
+    /**
+     * Get the id of the folded string for chars[start..end), adding it if absent.
+     * 
+     * @return id of the canonical case-folded string for the range
+     */
+    int internId(CharSequence chars, int start, int end) {
+        return internId(chars, start, end, foldedHash(chars, start, end));
+    }
+
+    /**
+     * Get the id of the folded string for chars[start..end), adding it if absent.
+     * 
+     * @param hash foldedHash(chars, start, end)
+     * @return id of the canonical case-folded string for the range
+     */
+    int internId(CharSequence chars, int start, int end, int hash) {
+        int slot = internSlot(chars, start, end, hash); // may grow ids
+        return ids[slot];
+    }
+
+    /**
+     * Look up chars[start..end) without adding it.
+     * 
+     * @return the canonical case-folded string for the range, or null if the
+     *         table does not contain it
+     */
+    String find(CharSequence chars, int start, int end, int hash) {
+        int slot = findSlot(chars, start, end, hash);
+        return keys[slot];
+    }
+
+    /**
+     * Look up the id of chars[start..end) without adding it.
+     * 
+     * @return id of the canonical case-folded string for the range, or -1 if
+     *         the table does not contain it
+     */
+    int findId(CharSequence chars, int start, int end) {
+        int slot = findSlot(chars, start, end, foldedHash(chars, start, end));
+        return keys[slot] == null ? -1 : ids[slot];
+    }
+
+    /**
+     * @param id requires 0 <= id < size()
+     * @return the string with that id
+     */
+    String nameOf(int id) {
+        return byId[id];
+    }
+
+    /*
+     * @return slot holding the range, or the empty slot where it belongs
+     */
+    private int findSlot(CharSequence chars, int start, int end, int hash) {
+        int mask = keys.length - 1;
+        int slot = spread(hash) & mask;
+        while (keys[slot] != null) {
+            if (hashes[slot] == hash && equalsFolded(keys[slot], chars, start, end)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /*
+     * @return slot holding the range, after adding it if absent
+     */
+    private int internSlot(CharSequence chars, int start, int end, int hash) {
+        int slot = findSlot(chars, start, end, hash);
+        if (keys[slot] != null) {
+            return slot;
+        }
+
+        char[] folded = new char[end - start];
+        for (int i = start; i < end; i++) {
+            folded[i - start] = fold(chars.charAt(i));
+        }
+        String key = new String(folded);
+        keys[slot] = key;
+        hashes[slot] = hash;
+        ids[slot] = size;
+        if (size == byId.length) {
+            byId = Arrays.copyOf(byId, size * 2);
+        }
+        byId[size] = key;
+        size++;
+        if (size * 2 > keys.length) {
+            grow();
+            return findSlot(key, 0, key.length(), hash);
+        }
+        return slot;
+    }
+
+    /**
+     * @param key an already case-folded string
+     * @param chars a char sequence
+     * @param start start of the range, inclusive
+     * @param end end of the range, exclusive
+     * @return true iff chars[start..end) folds to key
+     */
+    static boolean equalsFolded(String key, CharSequence chars, int start, int end) {
+        if (key.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (key.charAt(i - start) != fold(chars.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private void grow() {
+        String[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        int[] oldIds = ids;
+        keys = new String[oldKeys.length * 2];
+        hashes = new int[oldKeys.length * 2];
+        ids = new int[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = spread(oldHashes[i]) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                hashes[slot] = oldHashes[i];
+                ids[slot] = oldIds[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * KeywordMatcher is an immutable, compiled form of a word list for
+ * Filter.containing, meant to be built once and reused across many calls and
+ * threads.
+ * 
+ * matches() scans a tweet text once, left to right. Each word of the text (as
+ * split by Filter.containing) is case-folded and hashed while it is scanned,
+ * then looked up in a hash table of the folded keywords, so the cost per tweet
+ * is linear in its length and independent of the number of keywords. Only
+ * whole words match: a keyword inside a longer word does not.
+ * 
+ * Words containing non-ASCII characters are lower-cased with
+ * String.toLowerCase() and looked up in a set instead, so they compare
+ * exactly as in Filter.containing.
+ */
+public class KeywordMatcher {
+
+    private final InternTable asciiWords;
+    private final Set<String> wordsLower;
+    /* Rep invariant:
+     *    wordsLower is the set of keywords, each lower-cased with toLowerCase()
+     *    asciiWords contains exactly the ASCII strings in wordsLower
+     * Abstraction function:
+     *    represents the predicate "text contains one of wordsLower as a word,
+     *    ignoring case"
+     * Safety from rep exposure:
+     *    both fields are private and never returned; asciiWords is only read
+     *    after construction, which also makes the matcher thread-safe
+     */
+
+    /**
+     * Compile a word list.
+     * 
+     * @param words
+     *            a list of words to search for, not modified.
+     *            A word is a nonempty sequence of nonspace characters.
+     */
+    public KeywordMatcher(List<String> words) {
+        this.asciiWords = new InternTable();
+        this.wordsLower = new HashSet<String>();
+        for (String w : words) {
+            String lower = w.toLowerCase();
+            wordsLower.add(lower);
+            if (isAscii(lower, 0, lower.length())) {
+                asciiWords.intern(lower, 0, lower.length());
+            }
+        }
+    }
+
+    /**
+     * @param text text of a tweet
+     * @return true iff text, as a sequence of words bounded by space characters
+     *         and the ends of the string, includes at least one keyword, ignoring
+     *         case
+     */
+    public boolean matches(String text) {
+        final int length = text.length();
+        int i = WordTokenizer.wordStart(text, 0);
+        while (i < length) {
+            int start = i;
+            int hash = 0;
+            boolean ascii = true;
+            while (i < length && WordTokenizer.separatorLength(text, i) == 0) {
+                char c = text.charAt(i);
+                ascii &= c < 0x80;
+                hash = 31 * hash + InternTable.fold(c);
+                i++;
+            }
+            if (ascii ? asciiWords.find(text, start, i, hash) != null
+                      : wordsLower.contains(text.substring(start, i).toLowerCase())) {
+                return true;
+            }
+            i = WordTokenizer.wordStart(text, i);
+        }
+        return false;
+    }
+
+    /**
+     * Find tweets that contain the keywords.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method.
+     * @return the same list as Filter.containing(tweets, words) for the words
+     *         this matcher was compiled from
+     */
+    public List<Tweet> containing(List<Tweet> tweets) {
+        List<Tweet> answer = new ArrayList<Tweet>();
+        for (Tweet t : tweets) {
+            if (matches(t.getText())) {
+                answer.add(t);
+            }
+        }
+        return answer;
+    }
+
+    private static boolean isAscii(String s, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (s.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
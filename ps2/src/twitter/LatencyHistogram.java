@@ -0,0 +1,102 @@
+package twitter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe histogram of nanosecond latencies, with the log-linear buckets
+ * of HdrHistogram: values below 64 get a bucket each, and each power-of-two
+ * range above that is split into 32 equal buckets, so a recorded value is
+ * known to within about 3%, from 1 ns up to Long.MAX_VALUE ns, in under 2000
+ * counters.
+ * 
+ * Counters are LongAdders, so threads recording at once touch separate cells
+ * instead of contending for one.
+ */
+class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int LINEAR = 2 << SUB_BUCKET_BITS; // 64
+    private static final int BUCKETS = index(Long.MAX_VALUE) + 1;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+    private final LongAdder total = new LongAdder();
+    /* Rep invariant:
+     *    counts[i] is the number of values v recorded with index(v) == i
+     *    total is the sum of counts
+     */
+
+    LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /*
+     * @return bucket of a value >= 0
+     */
+    private static int index(long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    /*
+     * @return largest value in bucket i
+     */
+    private static long highestValue(int i) {
+        if (i < LINEAR) {
+            return i;
+        }
+        int shift = (i >>> SUB_BUCKET_BITS) - 1;
+        long low = (long) (i - (shift << SUB_BUCKET_BITS)) << shift;
+        long width = 1L << shift;
+        return low + (width - 1);
+    }
+
+    /**
+     * @param nanos a latency; negative latencies count as 0
+     */
+    void record(long nanos) {
+        counts[index(Math.max(0, nanos))].increment();
+        total.increment();
+    }
+
+    /**
+     * @return number of values recorded
+     */
+    long count() {
+        return total.sum();
+    }
+
+    /**
+     * @param quantile 0 <= quantile <= 1
+     * @return a value v such that about quantile of the recorded values are
+     *         <= v, within the bucket precision; 0 if none are recorded
+     */
+    long valueAt(double quantile) {
+        long target = (long) Math.ceil(quantile * total.sum());
+        long seen = 0;
+        long last = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long c = counts[i].sum();
+            if (c == 0) {
+                continue;
+            }
+            seen += c;
+            last = highestValue(i);
+            if (seen >= Math.max(1, target)) {
+                return last;
+            }
+        }
+        return last;
+    }
+
+    void reset() {
+        for (LongAdder c : counts) {
+            c.reset();
+        }
+        total.reset();
+    }
+}
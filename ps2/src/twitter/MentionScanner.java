@@ -0,0 +1,205 @@
+package twitter;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.IntConsumer;
+
+/**
+ * MentionScanner finds the username-mentions in tweet text, as specified by
+ * Extract.getMentionedUsers().
+ * 
+ * The text is walked in place, and each username is case-folded while it is
+ * scanned. Usernames are interned by the scanner, so a name creates a String
+ * only the first time this scanner sees it; later mentions of the same name
+ * (in any case) return the same instance.
+ * 
+ * A scanner is mutable and not thread-safe. Reuse one scanner across many
+ * tweets to get the benefit of interning.
+ */
+public class MentionScanner {
+
+    private final InternTable names = new InternTable();
+    private UsernameDictionary dictionary = null;
+    private int[] dictionaryIds = new int[0];
+    /* Rep invariant:
+     *    if dictionary != null, dictionaryIds[i] is either -1 or
+     *    dictionary.idOf(names.nameOf(i)), for i < dictionaryIds.length
+     * Abstraction function:
+     *    represents a scanner that has already seen the usernames in names
+     * Safety from rep exposure:
+     *    names and dictionaryIds are private and never returned; only
+     *    immutable Strings and ints are
+     */
+
+    /**
+     * Find the usernames mentioned in one tweet text.
+     * 
+     * @param text
+     *            text of a tweet
+     * @param mentioned
+     *            collection that every mentioned username is added to, in
+     *            lowercase, once per mention (so a username mentioned twice is
+     *            added twice)
+     * @return number of mentions found in text
+     */
+    public int scan(String text, Collection<? super String> mentioned) {
+        final int length = text.length();
+        int found = 0;
+
+        int i = 0;
+        while (i < length - 1) {
+            if (isStartOfUsername(text, i)) {
+                int j = i + 1;
+                int hash = 0;
+                char c;
+                while (j < length && isValidCharInUsername(c = text.charAt(j))) {
+                    hash = 31 * hash + InternTable.fold(c);
+                    j++;
+                }
+                mentioned.add(names.intern(text, i + 1, j, hash));
+                found++;
+                i = j;
+            }
+            i += 1;
+        }
+        return found;
+    }
+
+    /**
+     * Find the usernames mentioned in one tweet text, as ids.
+     * 
+     * @param text
+     *            text of a tweet
+     * @param dictionary
+     *            dictionary that assigns the ids; usernames not in it are added
+     * @param mentioned
+     *            receives dictionary.idOf(username) once per mention, in order
+     * @return number of mentions found in text
+     */
+    public int scanIds(String text, UsernameDictionary dictionary, IntConsumer mentioned) {
+        if (dictionary != this.dictionary) {
+            this.dictionary = dictionary;
+            this.dictionaryIds = new int[0];
+        }
+        final int length = text.length();
+        int found = 0;
+
+        int i = 0;
+        while (i < length - 1) {
+            if (isStartOfUsername(text, i)) {
+                int j = i + 1;
+                int hash = 0;
+                char c;
+                while (j < length && isValidCharInUsername(c = text.charAt(j))) {
+                    hash = 31 * hash + InternTable.fold(c);
+                    j++;
+                }
+                mentioned.accept(dictionaryId(names.internId(text, i + 1, j, hash)));
+                found++;
+                i = j;
+            }
+            i += 1;
+        }
+        return found;
+    }
+
+    /**
+     * Receives the mentions found by scanHashes(), as ranges of the text.
+     */
+    interface MentionHandler {
+        /**
+         * @param text the text being scanned
+         * @param start index of the username's first char, after the '@'
+         * @param end index just past the username's last char
+         * @param hash BloomFilter.foldedHash(text, start, end)
+         */
+        void mention(String text, int start, int end, long hash);
+    }
+
+    /**
+     * Find the usernames mentioned in one tweet text, without making or
+     * interning any strings: each mention is reported as its range of text
+     * and the 64-bit hash of its case-folded form.
+     * 
+     * @param text
+     *            text of a tweet
+     * @param handler
+     *            called once per mention, in order
+     * @return number of mentions found in text
+     */
+    static int scanHashes(String text, MentionHandler handler) {
+        final int length = text.length();
+        int found = 0;
+
+        int i = 0;
+        while (i < length - 1) {
+            if (isStartOfUsername(text, i)) {
+                int j = i + 1;
+                while (j < length && isValidCharInUsername(text.charAt(j))) {
+                    j++;
+                }
+                handler.mention(text, i + 1, j, BloomFilter.foldedHash(text, i + 1, j));
+                found++;
+                i = j;
+            }
+            i += 1;
+        }
+        return found;
+    }
+
+    /*
+     * @return dictionary id of the name with the given local id, caching it
+     */
+    private int dictionaryId(int localId) {
+        if (localId >= dictionaryIds.length) {
+            int oldLength = dictionaryIds.length;
+            dictionaryIds = Arrays.copyOf(dictionaryIds, Math.max(localId + 1, oldLength * 2));
+            Arrays.fill(dictionaryIds, oldLength, dictionaryIds.length, -1);
+        }
+        int id = dictionaryIds[localId];
+        if (id < 0) {
+            id = dictionary.idOf(names.nameOf(localId));
+            dictionaryIds[localId] = id;
+        }
+        return id;
+    }
+
+    /**
+     * Case-fold and intern a username, sharing the table used for mentions.
+     * 
+     * @param username
+     *            Twitter username, nonempty
+     * @return username in lowercase, as the same instance that scan() would
+     *         report for a mention of it
+     */
+    public String intern(String username) {
+        return names.intern(username, 0, username.length());
+    }
+
+    /**
+     * @return number of distinct usernames this scanner has interned
+     */
+    public int distinctNames() {
+        return names.size();
+    }
+
+    /*
+     * A mention starts at an '@' that is followed by a valid username char
+     * and not immediately preceded by one.
+     */
+    private static boolean isStartOfUsername(String text, int i) {
+        if (text.charAt(i) != '@' || !isValidCharInUsername(text.charAt(i + 1))) {
+            return false;
+        }
+        return i == 0 || !isValidCharInUsername(text.charAt(i - 1));
+    }
+
+    /**
+     * @param c a character
+     * @return true iff c may appear in a Twitter username, as defined by
+     *         Tweet.getAuthor()'s spec, extended to non-ASCII letters and digits
+     */
+    static boolean isValidCharInUsername(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-';
+    }
+}
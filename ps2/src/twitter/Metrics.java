@@ -0,0 +1,276 @@
+package twitter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Metrics optionally records, for each operation of Extract, Filter and
+ * SocialNetwork on a list of tweets, the number of calls, tweets scanned,
+ * results produced and a latency histogram.
+ * 
+ * Only the original methods, which take a List<Tweet> and usernames as
+ * Strings, are instrumented. The TweetStore overloads also scan every tweet,
+ * but over primitive columns, materializing only the matches; the id-space,
+ * KeywordMatcher and Stream variants likewise do a different amount of work
+ * per tweet. Mixing them into the same histograms would blur the latencies of
+ * the List methods, so they are not recorded.
+ * 
+ * Recording is off by default. When it is off, an instrumented call costs one
+ * volatile read on entry and one comparison on exit, and allocates nothing.
+ * When it is on, counters are LongAdders and histograms are LatencyHistograms,
+ * so concurrent callers do not contend.
+ * 
+ * Metrics are exported in the Prometheus text format, to a string, a file,
+ * or an HTTP endpoint.
+ */
+public class Metrics {
+
+    /**
+     * The instrumented operations, and what each counts as a result.
+     */
+    public enum Op {
+        /** Extract.getTimespan; results: 1 if a timespan was returned */
+        GET_TIMESPAN,
+        /** Extract.getMentionedUsers; results: mentions extracted */
+        GET_MENTIONED_USERS,
+        /** Filter.writtenBy; results: tweets returned */
+        WRITTEN_BY,
+        /** Filter.inTimespan; results: tweets returned */
+        IN_TIMESPAN,
+        /** Filter.containing; results: tweets returned */
+        CONTAINING,
+        /** SocialNetwork.guessFollowsGraph; results: users who follow someone */
+        GUESS_FOLLOWS_GRAPH,
+        /** SocialNetwork.influencers; results: users ranked (no tweets scanned) */
+        INFLUENCERS
+    }
+
+    /*
+     * Value of start() when recording is off, so the matching record() does
+     * nothing even if recording is turned on in between.
+     */
+    private static final long NOT_TIMED = Long.MIN_VALUE;
+
+    private static volatile boolean enabled = false;
+    private static final OpMetrics[] ops = new OpMetrics[Op.values().length];
+    static {
+        for (Op op : Op.values()) {
+            ops[op.ordinal()] = new OpMetrics();
+        }
+    }
+    /* Thread safety argument:
+     *    enabled is volatile; ops is never reassigned after class
+     *    initialization, and each OpMetrics contains only LongAdders and a
+     *    thread-safe LatencyHistogram
+     */
+
+    private static class OpMetrics {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder tweets = new LongAdder();
+        private final LongAdder results = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder latencyNanos = new LongAdder();
+    }
+
+    private Metrics() {
+        // not instantiable
+    }
+
+    /**
+     * Start recording.
+     */
+    public static void enable() {
+        enabled = true;
+    }
+
+    /**
+     * Stop recording; metrics recorded so far are kept.
+     */
+    public static void disable() {
+        enabled = false;
+    }
+
+    /**
+     * @return true iff recording is on
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Clear all recorded metrics.
+     */
+    public static void reset() {
+        for (OpMetrics m : ops) {
+            m.calls.reset();
+            m.tweets.reset();
+            m.results.reset();
+            m.latency.reset();
+            m.latencyNanos.reset();
+        }
+    }
+
+    /*
+     * Called on entry to an instrumented operation.
+     * 
+     * @return token to pass to record()
+     */
+    static long start() {
+        return enabled ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /*
+     * Called on exit from an instrumented operation.
+     * 
+     * @param start what start() returned on entry
+     */
+    static void record(Op op, long start, long tweets, long results) {
+        if (start == NOT_TIMED) {
+            return;
+        }
+        OpMetrics m = ops[op.ordinal()];
+        long elapsed = System.nanoTime() - start;
+        m.latency.record(elapsed);
+        m.latencyNanos.add(elapsed);
+        m.calls.increment();
+        m.tweets.add(tweets);
+        m.results.add(results);
+    }
+
+    /**
+     * @param op an operation
+     * @return number of calls to op recorded
+     */
+    public static long calls(Op op) {
+        return ops[op.ordinal()].calls.sum();
+    }
+
+    /**
+     * @param op an operation
+     * @return number of tweets scanned by the recorded calls to op
+     */
+    public static long tweetsScanned(Op op) {
+        return ops[op.ordinal()].tweets.sum();
+    }
+
+    /**
+     * @param op an operation
+     * @return number of results (as defined by Op) of the recorded calls to op
+     */
+    public static long results(Op op) {
+        return ops[op.ordinal()].results.sum();
+    }
+
+    /**
+     * @param op an operation
+     * @param quantile 0 <= quantile <= 1, e.g. 0.99
+     * @return latency in nanoseconds that about quantile of the recorded calls
+     *         to op did not exceed, to within 3%; 0 if none were recorded
+     */
+    public static long latencyNanos(Op op, double quantile) {
+        if (!(quantile >= 0 && quantile <= 1)) {
+            throw new IllegalArgumentException("requires 0 <= quantile <= 1");
+        }
+        return ops[op.ordinal()].latency.valueAt(quantile);
+    }
+
+    /**
+     * @param op an operation
+     * @return total latency in nanoseconds of the recorded calls to op
+     */
+    public static long totalLatencyNanos(Op op) {
+        return ops[op.ordinal()].latencyNanos.sum();
+    }
+
+    /**
+     * @return all metrics in the Prometheus text exposition format, each
+     *         metric family in one block after its TYPE line, with latency
+     *         quantiles 0.5, 0.9, 0.99 and 1, sum and count, in seconds
+     */
+    public static String export() {
+        StringBuilder out = new StringBuilder();
+        out.append("# TYPE twitter_calls_total counter\n");
+        for (Op op : Op.values()) {
+            out.append("twitter_calls_total").append(label(op)).append("} ").append(calls(op)).append('\n');
+        }
+        out.append("# TYPE twitter_tweets_scanned_total counter\n");
+        for (Op op : Op.values()) {
+            out.append("twitter_tweets_scanned_total").append(label(op)).append("} ").append(tweetsScanned(op)).append('\n');
+        }
+        out.append("# TYPE twitter_results_total counter\n");
+        for (Op op : Op.values()) {
+            out.append("twitter_results_total").append(label(op)).append("} ").append(results(op)).append('\n');
+        }
+        out.append("# TYPE twitter_latency_seconds summary\n");
+        for (Op op : Op.values()) {
+            for (double q : new double[] { 0.5, 0.9, 0.99, 1.0 }) {
+                out.append("twitter_latency_seconds").append(label(op)).append(",quantile=\"").append(q).append("\"} ")
+                   .append(latencyNanos(op, q) / 1e9).append('\n');
+            }
+            out.append("twitter_latency_seconds_sum").append(label(op)).append("} ")
+               .append(totalLatencyNanos(op) / 1e9).append('\n');
+            out.append("twitter_latency_seconds_count").append(label(op)).append("} ").append(calls(op)).append('\n');
+        }
+        return out.toString();
+    }
+
+    /*
+     * @return the opening of op's label set, without the closing brace
+     */
+    private static String label(Op op) {
+        return "{op=\"" + op.name().toLowerCase(Locale.ROOT) + "\"";
+    }
+
+    /**
+     * Write export() to a file, replacing it atomically where the file
+     * system allows, so a reader never sees a partial file.
+     * 
+     * @param file file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void exportTo(Path file) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, export().getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Serve export() over HTTP at path /metrics.
+     * 
+     * @param address address to listen on, e.g. new InetSocketAddress("localhost", 9464);
+     *            port 0 picks a free port
+     * @return the started server; the caller stops it with stop()
+     * @throws IOException if the server cannot listen on address
+     */
+    public static HttpServer serve(InetSocketAddress address) throws IOException {
+        HttpServer server = HttpServer.create(address, 0);
+        server.createContext("/metrics", exchange -> {
+            byte[] body = export().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
+}
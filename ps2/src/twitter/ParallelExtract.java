@@ -0,0 +1,147 @@
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ParallelExtract provides parallel versions of the Extract methods, for
+ * tweet lists large enough to be worth spreading across cores.
+ * 
+ * Each method has the same spec as the Extract method of the same name, and
+ * returns an equal result.
+ */
+public class ParallelExtract {
+
+    /*
+     * Below this many tweets a task does its work directly instead of forking.
+     */
+    private static final int MIN_CHUNK = 4096;
+
+    /**
+     * Get the time period spanned by tweets, using the common fork/join pool.
+     * 
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method.
+     * @return the same timespan as Extract.getTimespan(tweets), including null
+     *         for an empty list
+     */
+    public static Timespan getTimespan(List<Tweet> tweets) {
+        return getTimespan(tweets, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Get the time period spanned by tweets, using a given fork/join pool.
+     * 
+     * Each chunk of the list is reduced to the positions of its earliest and
+     * latest tweets, comparing timestamps as primitive epoch seconds and
+     * nanoseconds; the chunk results are then combined pairwise.
+     * 
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method.
+     * @param pool
+     *            pool to run on
+     * @return the same timespan as Extract.getTimespan(tweets), including null
+     *         for an empty list
+     */
+    public static Timespan getTimespan(List<Tweet> tweets, ForkJoinPool pool) {
+        if (tweets.size() == 0) {
+            return null;  // same as Extract.getTimespan
+        }
+        List<Tweet> list = tweets instanceof RandomAccess ? tweets : new ArrayList<Tweet>(tweets);
+        int chunk = Math.max(MIN_CHUNK, list.size() / (pool.getParallelism() * 4));
+
+        MinMax span = pool.invoke(new TimespanTask(list, 0, list.size(), chunk));
+        return new Timespan(list.get(span.earliest).getTimestamp(), list.get(span.latest).getTimestamp());
+    }
+
+    /*
+     * Positions of the earliest and latest tweets in a chunk, with their
+     * timestamps unpacked.
+     */
+    private static class MinMax {
+        private final int earliest;
+        private final long earliestSeconds;
+        private final int earliestNanos;
+        private final int latest;
+        private final long latestSeconds;
+        private final int latestNanos;
+
+        MinMax(int earliest, long earliestSeconds, int earliestNanos,
+               int latest, long latestSeconds, int latestNanos) {
+            this.earliest = earliest;
+            this.earliestSeconds = earliestSeconds;
+            this.earliestNanos = earliestNanos;
+            this.latest = latest;
+            this.latestSeconds = latestSeconds;
+            this.latestNanos = latestNanos;
+        }
+
+        MinMax combine(MinMax that) {
+            boolean thisEarlier = this.earliestSeconds < that.earliestSeconds
+                    || (this.earliestSeconds == that.earliestSeconds && this.earliestNanos <= that.earliestNanos);
+            boolean thisLater = this.latestSeconds > that.latestSeconds
+                    || (this.latestSeconds == that.latestSeconds && this.latestNanos >= that.latestNanos);
+            MinMax first = thisEarlier ? this : that;
+            MinMax last = thisLater ? this : that;
+            return new MinMax(first.earliest, first.earliestSeconds, first.earliestNanos,
+                              last.latest, last.latestSeconds, last.latestNanos);
+        }
+    }
+
+    /*
+     * Reduces tweets[from..to), which must be nonempty.
+     */
+    private static class TimespanTask extends RecursiveTask<MinMax> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Tweet> tweets;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        TimespanTask(List<Tweet> tweets, int from, int to, int chunk) {
+            this.tweets = tweets;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override protected MinMax compute() {
+            if (to - from > chunk) {
+                int mid = (from + to) >>> 1;
+                TimespanTask right = new TimespanTask(tweets, mid, to, chunk);
+                right.fork();
+                MinMax left = new TimespanTask(tweets, from, mid, chunk).compute();
+                return left.combine(right.join());
+            }
+
+            Instant first = tweets.get(from).getTimestamp();
+            int minAt = from;
+            long minSeconds = first.getEpochSecond();
+            int minNanos = first.getNano();
+            int maxAt = from;
+            long maxSeconds = minSeconds;
+            int maxNanos = minNanos;
+            for (int i = from + 1; i < to; i++) {
+                Instant ts = tweets.get(i).getTimestamp();
+                long s = ts.getEpochSecond();
+                int ns = ts.getNano();
+                if (s < minSeconds || (s == minSeconds && ns < minNanos)) {
+                    minAt = i;
+                    minSeconds = s;
+                    minNanos = ns;
+                }
+                if (s > maxSeconds || (s == maxSeconds && ns > maxNanos)) {
+                    maxAt = i;
+                    maxSeconds = s;
+                    maxNanos = ns;
+                }
+            }
+            return new MinMax(minAt, minSeconds, minNanos, maxAt, maxSeconds, maxNanos);
+        }
+    }
+}
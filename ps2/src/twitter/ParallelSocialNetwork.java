@@ -0,0 +1,106 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * ParallelSocialNetwork provides parallel versions of the SocialNetwork
+ * methods, for tweet lists large enough to be worth spreading across cores.
+ * 
+ * Each method has the same spec as the SocialNetwork method of the same name,
+ * and returns an equal result.
+ */
+public class ParallelSocialNetwork {
+
+    /*
+     * Below this many tweets a task does its work directly instead of forking.
+     */
+    private static final int MIN_CHUNK = 1024;
+
+    /**
+     * Guess who might follow whom, using the common fork/join pool.
+     * 
+     * @param tweets
+     *            a list of tweets providing the evidence, not modified by this
+     *            method.
+     * @return a social network equal to SocialNetwork.guessFollowsGraph(tweets)
+     */
+    public static Map<String, Set<String>> guessFollowsGraph(List<Tweet> tweets) {
+        return guessFollowsGraph(tweets, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Guess who might follow whom, using a given fork/join pool.
+     * 
+     * The tweets are split into chunks, each chunk is scanned into its own
+     * FollowsGraphBuilder, and the chunk graphs are merged into a
+     * ConcurrentHashMap whose per-bin locking lets chunks merge concurrently.
+     * 
+     * @param tweets
+     *            a list of tweets providing the evidence, not modified by this
+     *            method.
+     * @param pool
+     *            pool to run on; its parallelism decides the number of cores used
+     * @return a new mutable social network equal to
+     *         SocialNetwork.guessFollowsGraph(tweets)
+     */
+    public static Map<String, Set<String>> guessFollowsGraph(List<Tweet> tweets, ForkJoinPool pool) {
+        List<Tweet> list = tweets instanceof RandomAccess ? tweets : new ArrayList<Tweet>(tweets);
+        int chunk = Math.max(MIN_CHUNK, list.size() / (pool.getParallelism() * 4));
+
+        ConcurrentHashMap<String, Set<String>> merged = new ConcurrentHashMap<String, Set<String>>();
+        pool.invoke(new GuessTask(list, 0, list.size(), chunk, merged));
+
+        Map<String, Set<String>> answer = new HashMap<String, Set<String>>(merged.size() * 4 / 3 + 1);
+        for (Map.Entry<String, Set<String>> e : merged.entrySet()) {
+            answer.put(e.getKey(), new HashSet<String>(e.getValue()));
+        }
+        return answer;
+    }
+
+    /*
+     * Builds the graph of tweets[from..to) and merges it into merged.
+     */
+    private static class GuessTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Tweet> tweets;
+        private final int from;
+        private final int to;
+        private final int chunk;
+        private final transient ConcurrentHashMap<String, Set<String>> merged;
+
+        GuessTask(List<Tweet> tweets, int from, int to, int chunk,
+                  ConcurrentHashMap<String, Set<String>> merged) {
+            this.tweets = tweets;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+            this.merged = merged;
+        }
+
+        @Override protected void compute() {
+            if (to - from > chunk) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new GuessTask(tweets, from, mid, chunk, merged),
+                          new GuessTask(tweets, mid, to, chunk, merged));
+                return;
+            }
+
+            FollowsGraphBuilder builder = new FollowsGraphBuilder();
+            builder.acceptAll(tweets.subList(from, to));
+            for (Map.Entry<String, Set<String>> e : builder.snapshot().entrySet()) {
+                merged.computeIfAbsent(e.getKey(), k -> ConcurrentHashMap.<String>newKeySet())
+                      .addAll(e.getValue());
+            }
+        }
+    }
+}
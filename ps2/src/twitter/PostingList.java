@@ -0,0 +1,151 @@
+package twitter;
+
+import java.util.Arrays;
+
+/**
+ * Immutable, compressed list of strictly increasing nonnegative ints, such as
+ * the positions of the tweets that contain a word.
+ * 
+ * Positions are stored as gaps from the previous position, each written as a
+ * variable-length integer of 7 bits per byte, so a dense list costs about one
+ * byte per entry.
+ */
+class PostingList {
+
+    private final byte[] bytes;
+    private final int size;
+    /* Rep invariant:
+     *    bytes is a sequence of exactly size varints, each gap > 0 except
+     *    possibly the first
+     * Abstraction function:
+     *    represents the list p_0 < p_1 < ... < p_(size-1) where p_0 is the first
+     *    varint and p_k = p_(k-1) + the k-th varint
+     * Safety from rep exposure:
+     *    bytes is private, never returned, and only filled by Builder
+     */
+
+    private PostingList(byte[] bytes, int size) {
+        this.bytes = bytes;
+        this.size = size;
+    }
+
+    /**
+     * @return number of positions in this list
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return number of bytes used by the compressed positions
+     */
+    int compressedBytes() {
+        return bytes.length;
+    }
+
+    /**
+     * Decode this list into an array.
+     * 
+     * @param dst array to write into, with room for size() entries from offset
+     * @param offset first index of dst to write
+     * @return offset + size()
+     */
+    int decodeInto(int[] dst, int offset) {
+        int position = 0;
+        int k = offset;
+        int i = 0;
+        while (i < bytes.length) {
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[i++];
+                gap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            position += gap;
+            dst[k++] = position;
+        }
+        return k;
+    }
+
+    /**
+     * @return the positions in this list, in increasing order
+     */
+    int[] toArray() {
+        int[] positions = new int[size];
+        decodeInto(positions, 0);
+        return positions;
+    }
+
+    /**
+     * Union several posting lists.
+     * 
+     * @param lists posting lists
+     * @return every position in any of the lists, in increasing order, once each
+     */
+    static int[] union(PostingList... lists) {
+        if (lists.length == 1) {
+            return lists[0].toArray();
+        }
+        int total = 0;
+        for (PostingList list : lists) {
+            total += list.size;
+        }
+        int[] all = new int[total];
+        int end = 0;
+        for (PostingList list : lists) {
+            end = list.decodeInto(all, end);
+        }
+        Arrays.sort(all);
+
+        int distinct = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (i == 0 || all[i] != all[i - 1]) {
+                all[distinct++] = all[i];
+            }
+        }
+        return distinct == all.length ? all : Arrays.copyOf(all, distinct);
+    }
+
+    /**
+     * Mutable builder that appends positions in increasing order.
+     */
+    static class Builder {
+
+        private byte[] bytes = new byte[4];
+        private int length = 0;
+        private int size = 0;
+        private int last = -1;
+
+        /**
+         * Append a position. Appending the last position again does nothing.
+         * 
+         * @param position requires position >= every position already added
+         */
+        void add(int position) {
+            if (position == last) {
+                return;
+            }
+            assert position > last;
+            int gap = size == 0 ? position : position - last;
+            if (length + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            while ((gap & ~0x7F) != 0) {
+                bytes[length++] = (byte) ((gap & 0x7F) | 0x80);
+                gap >>>= 7;
+            }
+            bytes[length++] = (byte) gap;
+            size++;
+            last = position;
+        }
+
+        /**
+         * @return an immutable posting list of the positions added so far
+         */
+        PostingList build() {
+            return new PostingList(Arrays.copyOf(bytes, length), size);
+        }
+    }
+}
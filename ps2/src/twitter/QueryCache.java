@@ -0,0 +1,332 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * QueryCache answers Filter and SocialNetwork queries over a corpus of tweets
+ * that changes from time to time, remembering recent answers.
+ * 
+ * Each change to the corpus starts a new version. Answers are cached under
+ * the version they were computed from plus the query in normal form
+ * (lowercase username, set of lowercase words, or timespan), so writtenBy of
+ * "Alyssa" and of "alyssa", or containing of [b, a] and of [A, b, a], share
+ * one entry; a change to the corpus drops every cached answer.
+ * 
+ * The cache is an LRU bounded both by number of entries and by total weight,
+ * where an answer weighs one plus its length. Hits, misses and evictions are
+ * counted.
+ * 
+ * A QueryCache is thread-safe. Answers are computed outside the lock, so slow
+ * queries do not block others; two threads missing on the same query may
+ * both compute it.
+ */
+public class QueryCache {
+
+    /*
+     * Kinds of query, which with the version and argument make a key.
+     */
+    private enum Kind { WRITTEN_BY, IN_TIMESPAN, CONTAINING, INFLUENCERS }
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final LinkedHashMap<Key, List<?>> entries = new LinkedHashMap<Key, List<?>>(16, 0.75f, true);
+    private List<Tweet> tweets;
+    private long version = 0;
+    private long weight = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    /* Rep invariant:
+     *    maxEntries > 0, maxWeight > 0
+     *    entries.size() <= maxEntries, weight == sum of weigh(entry) <= maxWeight
+     *    every key in entries has key.version == version
+     *    tweets is unmodifiable and never mutated
+     * Abstraction function:
+     *    represents the corpus tweets at the given version, with the cached
+     *    answers entries, least recently used first
+     * Safety from rep exposure:
+     *    tweets is an unmodifiable copy; answers are unmodifiable lists
+     * Thread safety argument:
+     *    every field except the final bounds is read and written only while
+     *    holding this object's lock
+     */
+
+    /*
+     * A normalized query at a corpus version.
+     */
+    private static final class Key {
+        private final long version;
+        private final Kind kind;
+        private final Object argument;
+
+        Key(long version, Kind kind, Object argument) {
+            this.version = version;
+            this.kind = kind;
+            this.argument = argument;
+        }
+
+        @Override public boolean equals(Object thatObject) {
+            if (!(thatObject instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) thatObject;
+            return version == that.version && kind == that.kind
+                    && (argument == null ? that.argument == null : argument.equals(that.argument));
+        }
+
+        @Override public int hashCode() {
+            int result = Long.hashCode(version);
+            result = 31 * result + kind.hashCode();
+            result = 31 * result + (argument == null ? 0 : argument.hashCode());
+            return result;
+        }
+    }
+
+    /**
+     * Make an empty cache over a corpus.
+     * 
+     * @param tweets
+     *            the corpus, not modified; later changes to the list do not
+     *            affect the cache
+     * @param maxEntries
+     *            most answers to keep, > 0
+     * @param maxWeight
+     *            most total weight to keep, > 0; an answer weighs 1 plus its
+     *            length, and an answer heavier than this is not kept
+     */
+    public QueryCache(List<Tweet> tweets, int maxEntries, long maxWeight) {
+        if (maxEntries <= 0 || maxWeight <= 0) {
+            throw new IllegalArgumentException("requires maxEntries > 0, maxWeight > 0");
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.tweets = Collections.unmodifiableList(new ArrayList<Tweet>(tweets));
+    }
+
+    /**
+     * @return the current corpus version, which starts at 0 and increases by
+     *         one with each change
+     */
+    public synchronized long version() {
+        return version;
+    }
+
+    /**
+     * @return the current corpus, unmodifiable
+     */
+    public synchronized List<Tweet> tweets() {
+        return tweets;
+    }
+
+    /**
+     * Replace the corpus, dropping every cached answer.
+     * 
+     * @param tweets
+     *            the new corpus, not modified
+     */
+    public void replace(List<Tweet> tweets) {
+        List<Tweet> copy = Collections.unmodifiableList(new ArrayList<Tweet>(tweets));
+        synchronized (this) {
+            this.tweets = copy;
+            newVersion();
+        }
+    }
+
+    /**
+     * Add tweets to the end of the corpus, dropping every cached answer.
+     * 
+     * @param more
+     *            tweets to add, not modified
+     */
+    public synchronized void addAll(List<Tweet> more) {
+        List<Tweet> grown = new ArrayList<Tweet>(tweets.size() + more.size());
+        grown.addAll(tweets);
+        grown.addAll(more);
+        this.tweets = Collections.unmodifiableList(grown);
+        newVersion();
+    }
+
+    private void newVersion() {
+        version++;
+        entries.clear();
+        weight = 0;
+    }
+
+    /**
+     * @param username
+     *            Twitter username, as for Filter.writtenBy
+     * @return Filter.writtenBy(tweets(), username), unmodifiable
+     */
+    public List<Tweet> writtenBy(String username) {
+        return answer(Kind.WRITTEN_BY, username.toLowerCase(), t -> Filter.writtenBy(t, username));
+    }
+
+    /**
+     * @param timespan
+     *            timespan, as for Filter.inTimespan
+     * @return Filter.inTimespan(tweets(), timespan), unmodifiable
+     */
+    public List<Tweet> inTimespan(Timespan timespan) {
+        return answer(Kind.IN_TIMESPAN, timespan, t -> Filter.inTimespan(t, timespan));
+    }
+
+    /**
+     * @param words
+     *            words, as for Filter.containing
+     * @return Filter.containing(tweets(), words), unmodifiable
+     */
+    public List<Tweet> containing(List<String> words) {
+        TreeSet<String> normal = new TreeSet<String>();
+        for (String w : words) {
+            normal.add(w.toLowerCase());
+        }
+        List<String> sorted = new ArrayList<String>(normal);
+        return answer(Kind.CONTAINING, sorted, t -> Filter.containing(t, sorted));
+    }
+
+    /**
+     * @return SocialNetwork.influencers(SocialNetwork.guessFollowsGraph(tweets())),
+     *         unmodifiable
+     */
+    public List<String> influencers() {
+        return answer(Kind.INFLUENCERS, null,
+                      t -> SocialNetwork.influencers(SocialNetwork.guessFollowsGraph(t)));
+    }
+
+    /*
+     * Look up a query, computing and caching it on a miss.
+     */
+    private <T> List<T> answer(Kind kind, Object argument, Function<List<Tweet>, List<T>> query) {
+        List<Tweet> corpus;
+        Key key;
+        synchronized (this) {
+            key = new Key(version, kind, argument);
+            @SuppressWarnings("unchecked")
+            List<T> cached = (List<T>) entries.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+            corpus = tweets;
+        }
+
+        List<T> computed = Collections.unmodifiableList(query.apply(corpus));
+        synchronized (this) {
+            if (key.version == version) {
+                put(key, computed);
+            }
+        }
+        return computed;
+    }
+
+    /*
+     * Cache an answer, then evict least recently used answers until both
+     * bounds hold. Requires the lock.
+     */
+    private void put(Key key, List<?> answer) {
+        long w = weigh(answer);
+        if (w > maxWeight) {
+            return;
+        }
+        List<?> old = entries.put(key, answer);
+        if (old != null) {
+            weight -= weigh(old);
+        }
+        weight += w;
+        Iterator<Map.Entry<Key, List<?>>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries || weight > maxWeight) {
+            Map.Entry<Key, List<?>> e = eldest.next();
+            weight -= weigh(e.getValue());
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    private static long weigh(List<?> answer) {
+        return 1 + answer.size();
+    }
+
+    /**
+     * @return counts of hits, misses and evictions so far, and the current
+     *         number and weight of cached answers
+     */
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, evictions, entries.size(), weight);
+    }
+
+    /**
+     * Immutable snapshot of a QueryCache's counters.
+     */
+    public static class CacheStats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int entries;
+        private final long weight;
+
+        CacheStats(long hits, long misses, long evictions, int entries, long weight) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.entries = entries;
+            this.weight = weight;
+        }
+
+        /**
+         * @return number of queries answered from the cache
+         */
+        public long hits() {
+            return hits;
+        }
+
+        /**
+         * @return number of queries computed
+         */
+        public long misses() {
+            return misses;
+        }
+
+        /**
+         * @return number of answers evicted to respect the bounds (answers
+         *         dropped by a corpus change are not counted)
+         */
+        public long evictions() {
+            return evictions;
+        }
+
+        /**
+         * @return number of answers cached now
+         */
+        public int entries() {
+            return entries;
+        }
+
+        /**
+         * @return total weight of the answers cached now
+         */
+        public long weight() {
+            return weight;
+        }
+
+        /**
+         * @return hits / (hits + misses), or 0 before any query
+         */
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override public String toString() {
+            return "hits=" + hits + " misses=" + misses + " evictions=" + evictions
+                    + " entries=" + entries + " weight=" + weight;
+        }
+    }
+}
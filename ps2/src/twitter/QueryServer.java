@@ -0,0 +1,368 @@
+package twitter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * QueryServer serves Filter and SocialNetwork queries over HTTP, against a
+ * shared corpus of tweets that can be replaced or extended while it runs.
+ * 
+ * Endpoints, all GET, all answering JSON:
+ * 
+ *     /timeline?user=U[&limit=N]           tweets written by U (Filter.writtenBy)
+ *     /search?words=W1+W2...[&limit=N]     tweets containing any word (Filter.containing)
+ *     /timespan?start=T1&end=T2[&limit=N]  tweets sent in [T1, T2], ISO-8601 (Filter.inTimespan)
+ *     /influencers[?limit=N]               users by follower count (SocialNetwork.influencers)
+ * 
+ * Tweet lists are {"version":V,"count":C,"tweets":[{"id":..,"author":..,
+ * "timestamp":..,"text":..},...]} and influencers are {"version":V,
+ * "users":[{"user":..,"followers":..},...]}, where V is the version of the
+ * corpus that answered and C is the number of matches before the limit. A
+ * malformed query gets status 400 and {"error":..}.
+ * 
+ * The corpus is an immutable Snapshot, indexed by TweetIndex and ranked by
+ * FollowerRanking, held in an AtomicReference. A request reads the reference
+ * once and answers from that snapshot without locking. ingest() and replace()
+ * build a new snapshot beside the current one, copy-on-write, and swap it in,
+ * so requests never see a half-built corpus.
+ * 
+ * Each request runs on its own virtual thread when the JDK supports them
+ * (Java 21 and later), so there is no pool to size; on older JDKs requests run
+ * on a cached thread pool instead.
+ */
+public class QueryServer {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final AtomicReference<Snapshot> snapshot;
+    /* Rep invariant:
+     *    snapshot.get() != null, and its version increases with each swap
+     * Abstraction function:
+     *    represents an HTTP service over the corpus snapshot.get()
+     * Safety from rep exposure:
+     *    all fields are private; snapshots are immutable
+     * Thread safety argument:
+     *    snapshots are immutable and published through an AtomicReference;
+     *    writers are serialized by this object's lock, and readers take no lock
+     */
+
+    /**
+     * An immutable version of the corpus, with the indexes that answer queries.
+     */
+    static class Snapshot {
+        private final long version;
+        private final TweetIndex index;
+        private final FollowerRanking ranking;
+
+        Snapshot(long version, List<Tweet> tweets) {
+            this.version = version;
+            this.index = new TweetIndex(tweets);
+            this.ranking = new FollowerRanking(SocialNetwork.guessFollowsGraph(tweets));
+        }
+    }
+
+    /**
+     * Make a server; it does not listen until start().
+     * 
+     * @param address
+     *            address to listen on; port 0 picks a free port
+     * @param tweets
+     *            initial corpus, not modified
+     * @throws IOException if the server cannot bind to address
+     */
+    public QueryServer(InetSocketAddress address, List<Tweet> tweets) throws IOException {
+        this.snapshot = new AtomicReference<Snapshot>(new Snapshot(0, tweets));
+        this.server = HttpServer.create(address, 0);
+        ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "query-server");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/timeline", new Endpoint(this::timeline));
+        server.createContext("/search", new Endpoint(this::search));
+        server.createContext("/timespan", new Endpoint(this::timespan));
+        server.createContext("/influencers", new Endpoint(this::influencers));
+    }
+
+    /*
+     * @return Executors.newVirtualThreadPerTaskExecutor() if this JDK has
+     *         virtual threads, else null
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        } catch (InvocationTargetException e) {
+            return null; // e.g. a preview feature that is not enabled
+        }
+    }
+
+    /**
+     * Start listening.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stop listening, waiting up to delaySeconds for requests in progress.
+     * 
+     * @param delaySeconds most seconds to wait, >= 0
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return port the server listens on
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return true iff requests run on virtual threads
+     */
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * @return version of the corpus now being served; 0 at first, increased
+     *         by each ingest() or replace()
+     */
+    public long version() {
+        return snapshot.get().version;
+    }
+
+    /**
+     * Add tweets to the corpus. Requests keep being answered from the old
+     * corpus until the new one is built.
+     * 
+     * @param more
+     *            tweets to add, with ids distinct from the corpus's; not modified
+     */
+    public synchronized void ingest(List<Tweet> more) {
+        Snapshot current = snapshot.get();
+        List<Tweet> tweets = new ArrayList<Tweet>(current.index.size() + more.size());
+        tweets.addAll(current.index.tweets());
+        tweets.addAll(more);
+        snapshot.set(new Snapshot(current.version + 1, tweets));
+    }
+
+    /**
+     * Replace the corpus. Requests keep being answered from the old corpus
+     * until the new one is built.
+     * 
+     * @param tweets
+     *            the new corpus, not modified
+     */
+    public synchronized void replace(List<Tweet> tweets) {
+        snapshot.set(new Snapshot(snapshot.get().version + 1, tweets));
+    }
+
+    /*
+     * A query: given the snapshot and the decoded parameters, appends the
+     * JSON answer, or throws IllegalArgumentException for a bad query.
+     */
+    private interface Query {
+        void answer(Snapshot snapshot, Map<String, String> parameters, StringBuilder json);
+    }
+
+    /*
+     * Adapts a Query to HTTP: decodes the parameters, picks up the current
+     * snapshot and writes the answer or the error.
+     */
+    private class Endpoint implements HttpHandler {
+        private final Query query;
+
+        Endpoint(Query query) {
+            this.query = query;
+        }
+
+        @Override public void handle(HttpExchange exchange) throws IOException {
+            int status = 200;
+            StringBuilder json = new StringBuilder();
+            try {
+                if (!"GET".equals(exchange.getRequestMethod())) {
+                    status = 405;
+                    error(json, "only GET is supported");
+                } else {
+                    query.answer(snapshot.get(), parameters(exchange.getRequestURI().getRawQuery()), json);
+                }
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                status = 400;
+                json.setLength(0);
+                error(json, e.getMessage());
+            }
+            byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private void timeline(Snapshot s, Map<String, String> parameters, StringBuilder json) {
+        String user = required(parameters, "user");
+        tweets(s, s.index.writtenBy(user), limit(parameters), json);
+    }
+
+    private void search(Snapshot s, Map<String, String> parameters, StringBuilder json) {
+        List<String> words = new ArrayList<String>();
+        for (String w : required(parameters, "words").split("\\s+")) {
+            if (!w.isEmpty()) {
+                words.add(w);
+            }
+        }
+        if (words.isEmpty()) {
+            throw new IllegalArgumentException("words is empty");
+        }
+        tweets(s, s.index.containing(words), limit(parameters), json);
+    }
+
+    private void timespan(Snapshot s, Map<String, String> parameters, StringBuilder json) {
+        Instant start = Instant.parse(required(parameters, "start"));
+        Instant end = Instant.parse(required(parameters, "end"));
+        tweets(s, s.index.inTimespan(new Timespan(start, end)), limit(parameters), json);
+    }
+
+    private void influencers(Snapshot s, Map<String, String> parameters, StringBuilder json) {
+        int limit = limit(parameters);
+        json.append("{\"version\":").append(s.version).append(",\"users\":[");
+        List<String> top = s.ranking.topK(Math.min(limit, s.ranking.size()));
+        for (int i = 0; i < top.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"user\":");
+            string(json, top.get(i));
+            json.append(",\"followers\":").append(s.ranking.followerCount(top.get(i))).append('}');
+        }
+        json.append("]}");
+    }
+
+    private static void tweets(Snapshot s, List<Tweet> tweets, int limit, StringBuilder json) {
+        json.append("{\"version\":").append(s.version)
+            .append(",\"count\":").append(tweets.size())
+            .append(",\"tweets\":[");
+        for (int i = 0; i < tweets.size() && i < limit; i++) {
+            Tweet t = tweets.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(t.getId()).append(",\"author\":");
+            string(json, t.getAuthor());
+            json.append(",\"timestamp\":");
+            string(json, t.getTimestamp().toString());
+            json.append(",\"text\":");
+            string(json, t.getText());
+            json.append('}');
+        }
+        json.append("]}");
+    }
+
+    private static void error(StringBuilder json, String message) {
+        json.append("{\"error\":");
+        string(json, message == null ? "bad request" : message);
+        json.append('}');
+    }
+
+    /*
+     * Append s as a JSON string literal.
+     */
+    private static void string(StringBuilder json, String s) {
+        json.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    private static String required(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("missing parameter " + name);
+        }
+        return value;
+    }
+
+    /*
+     * @return the limit parameter, or Integer.MAX_VALUE if absent
+     */
+    private static int limit(Map<String, String> parameters) {
+        String value = parameters.get("limit");
+        if (value == null) {
+            return Integer.MAX_VALUE;
+        }
+        int limit = Integer.parseInt(value); // NumberFormatException is an IllegalArgumentException
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must be >= 0");
+        }
+        return limit;
+    }
+
+    /*
+     * Decode a raw query string; a repeated name keeps its last value.
+     */
+    private static Map<String, String> parameters(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> parameters = new HashMap<String, String>();
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            parameters.put(decode(name), decode(value));
+        }
+        return parameters;
+    }
+
+    private static String decode(String s) {
+        try {
+            return URLDecoder.decode(s, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError("UTF-8 is always supported", e);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SegmentedTweets partitions a fixed list of tweets into segments of equal
+ * size, and keeps a Bloom filter of the case-folded words and authors in each
+ * segment, so that searches for rare words or authors can skip the segments
+ * that cannot contain a match.
+ * 
+ * Each query method has the same spec as the Filter method of the same name,
+ * applied to the list of tweets the store was built from. Query methods are
+ * thread-safe, and count how many segments they scanned and skipped.
+ */
+public class SegmentedTweets {
+
+    private final List<Tweet> tweets;
+    private final int segmentSize;
+    private final BloomFilter[] words;
+    private final BloomFilter[] authors;
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder segmentsScanned = new LongAdder();
+    private final LongAdder segmentsSkipped = new LongAdder();
+    /* Rep invariant:
+     *    segmentSize > 0; words.length == authors.length == number of segments,
+     *    ceil(tweets.size() / segmentSize)
+     *    words[s] and authors[s] contain every lower-cased word and author of
+     *    the tweets in segment s, tweets[s*segmentSize .. (s+1)*segmentSize)
+     * Abstraction function:
+     *    represents the list of tweets, with a summary of each segment
+     * Safety from rep exposure:
+     *    tweets is an unmodifiable copy; filters are private and never returned
+     * Thread safety argument:
+     *    tweets and filters are not changed after construction; counters are
+     *    LongAdders
+     */
+
+    /**
+     * Partition tweets into segments.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified. Later changes
+     *            to the list do not affect this store.
+     * @param segmentSize
+     *            number of tweets per segment (the last may be smaller), > 0
+     * @param falsePositiveRate
+     *            target false positive rate of each segment's filters,
+     *            0 < falsePositiveRate < 1; lower rates skip more segments
+     *            and cost more bits
+     */
+    public SegmentedTweets(List<Tweet> tweets, int segmentSize, double falsePositiveRate) {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("requires segmentSize > 0");
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("requires 0 < falsePositiveRate < 1");
+        }
+        this.tweets = Collections.unmodifiableList(new ArrayList<Tweet>(tweets));
+        this.segmentSize = segmentSize;
+        int segmentCount = (this.tweets.size() + segmentSize - 1) / segmentSize;
+        this.words = new BloomFilter[segmentCount];
+        this.authors = new BloomFilter[segmentCount];
+
+        Set<String> segmentWords = new HashSet<String>();
+        Set<String> segmentAuthors = new HashSet<String>();
+        for (int s = 0; s < segmentCount; s++) {
+            segmentWords.clear();
+            segmentAuthors.clear();
+            for (Tweet t : segment(s)) {
+                segmentAuthors.add(t.getAuthor().toLowerCase());
+                String text = t.getText();
+                int start = WordTokenizer.wordStart(text, 0);
+                while (start < text.length()) {
+                    int end = WordTokenizer.wordEnd(text, start);
+                    segmentWords.add(text.substring(start, end).toLowerCase());
+                    start = WordTokenizer.wordStart(text, end);
+                }
+            }
+            words[s] = filterOf(segmentWords, falsePositiveRate);
+            authors[s] = filterOf(segmentAuthors, falsePositiveRate);
+        }
+    }
+
+    private static BloomFilter filterOf(Set<String> strings, double falsePositiveRate) {
+        BloomFilter filter = new BloomFilter(strings.size(), falsePositiveRate);
+        for (String s : strings) {
+            filter.add(s);
+        }
+        return filter;
+    }
+
+    private List<Tweet> segment(int s) {
+        return tweets.subList(s * segmentSize, Math.min(tweets.size(), (s + 1) * segmentSize));
+    }
+
+    /**
+     * @return number of tweets
+     */
+    public int size() {
+        return tweets.size();
+    }
+
+    /**
+     * @return number of segments
+     */
+    public int segmentCount() {
+        return words.length;
+    }
+
+    /**
+     * Find tweets that contain certain words, skipping segments whose filter
+     * rules out every word.
+     * 
+     * @param words
+     *            a list of words to search for in the tweets.
+     *            A word is a nonempty sequence of nonspace characters.
+     * @return the same list Filter.containing(tweets, words) returns
+     */
+    public List<Tweet> containing(List<String> words) {
+        List<String> wordsLower = new ArrayList<String>();
+        for (String w : words) {
+            wordsLower.add(w.toLowerCase());
+        }
+        KeywordMatcher matcher = new KeywordMatcher(words);
+
+        List<Tweet> answer = new ArrayList<Tweet>();
+        int scanned = 0;
+        for (int s = 0; s < this.words.length; s++) {
+            if (!mightContainAny(this.words[s], wordsLower)) {
+                continue;
+            }
+            scanned++;
+            for (Tweet t : segment(s)) {
+                if (matcher.matches(t.getText())) {
+                    answer.add(t);
+                }
+            }
+        }
+        record(scanned);
+        return answer;
+    }
+
+    /**
+     * Find tweets written by a particular user, skipping segments whose filter
+     * rules out the user.
+     * 
+     * @param username
+     *            Twitter username, required to be a valid Twitter username as
+     *            defined by Tweet.getAuthor()'s spec.
+     * @return the same list Filter.writtenBy(tweets, username) returns
+     */
+    public List<Tweet> writtenBy(String username) {
+        String lower = username.toLowerCase();
+        List<Tweet> answer = new ArrayList<Tweet>();
+        int scanned = 0;
+        for (int s = 0; s < authors.length; s++) {
+            if (!authors[s].mightContain(lower)) {
+                continue;
+            }
+            scanned++;
+            for (Tweet t : segment(s)) {
+                if (t.getAuthor().equalsIgnoreCase(username)) {
+                    answer.add(t);
+                }
+            }
+        }
+        record(scanned);
+        return answer;
+    }
+
+    private static boolean mightContainAny(BloomFilter filter, List<String> strings) {
+        for (String s : strings) {
+            if (filter.mightContain(s)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void record(int scanned) {
+        queries.increment();
+        segmentsScanned.add(scanned);
+        segmentsSkipped.add(words.length - scanned);
+    }
+
+    /**
+     * @return counts of the queries run so far and the segments they scanned
+     *         and skipped
+     */
+    public SegmentStats stats() {
+        return new SegmentStats(queries.sum(), segmentsScanned.sum(), segmentsSkipped.sum());
+    }
+
+    /**
+     * Immutable counts of segments scanned and skipped by queries.
+     */
+    public static class SegmentStats {
+        private final long queries;
+        private final long scanned;
+        private final long skipped;
+
+        SegmentStats(long queries, long scanned, long skipped) {
+            this.queries = queries;
+            this.scanned = scanned;
+            this.skipped = skipped;
+        }
+
+        /**
+         * @return number of queries run
+         */
+        public long queries() {
+            return queries;
+        }
+
+        /**
+         * @return total number of segments scanned by those queries
+         */
+        public long segmentsScanned() {
+            return scanned;
+        }
+
+        /**
+         * @return total number of segments skipped by those queries
+         */
+        public long segmentsSkipped() {
+            return skipped;
+        }
+
+        /**
+         * @return average number of segments skipped per query, 0 if none ran
+         */
+        public double skippedPerQuery() {
+            return queries == 0 ? 0 : (double) skipped / queries;
+        }
+
+        @Override public String toString() {
+            return "queries=" + queries + " scanned=" + scanned + " skipped=" + skipped;
+        }
+    }
+}
@@ -1,14 +1,9 @@
 package twitter;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collector;
-import java.util.stream.Collectors;
 
 /**
  * SocialNetwork provides methods that operate on a social network.
@@ -44,24 +39,47 @@ public class SocialNetwork {
      *         either authors or @-mentions in the list of tweets.
      */
     public static Map<String, Set<String>> guessFollowsGraph(List<Tweet> tweets) {
-        // not specified how to store username, choose store in lowercase
-        Map<String, Set<String>> ans = new HashMap<String, Set<String>>();
-        
-        for (Tweet t: tweets) {
-            String author = t.getAuthor().toLowerCase();
-            Set<String> mentioned = Extract.getMentionedUsers(Arrays.asList(t)).stream()
-                                                                               .map(s -> s.toLowerCase())
-                                                                               .filter(s -> !s.equals(author))
-                                                                               .collect(Collectors.toSet());
-            if (mentioned.size() > 0) {
-                if (ans.containsKey(author)) {
-                    ans.get(author).addAll(mentioned);
-                } else {
-                    ans.put(author, mentioned);
-                }
-            }
+        // not specified how to store username, choose store in lowercase;
+        // return a mutable map of mutable sets, as callers may add edges
+        long timer = Metrics.start();
+        FollowsGraphBuilder builder = new FollowsGraphBuilder();
+        builder.acceptAll(tweets);
+        Map<String, Set<String>> graph = builder.toMap();
+        Metrics.record(Metrics.Op.GUESS_FOLLOWS_GRAPH, timer, tweets.size(), graph.size());
+        return graph;
+    }
+
+    /**
+     * Guess who might follow whom, from evidence found in the tweets in a store.
+     * 
+     * @param store
+     *            store of tweets providing the evidence
+     * @return the same social network as guessFollowsGraph(store.asList()),
+     *         without materializing any tweets
+     */
+    public static Map<String, Set<String>> guessFollowsGraph(TweetStore store) {
+        FollowsGraphBuilder builder = new FollowsGraphBuilder();
+        TweetStore.TextCursor texts = store.new TextCursor();
+        for (int r = 0; r < store.size(); r++) {
+            builder.accept(store.author(r), texts.text(r));
         }
-        return ans;
+        return builder.toMap();
+    }
+
+    /**
+     * Guess who might follow whom, with users identified by id.
+     * 
+     * @param tweets
+     *            a list of tweets providing the evidence, not modified by this
+     *            method.
+     * @param usernames
+     *            dictionary that assigns the ids; authors and mentions not in it
+     *            are added
+     * @return a compact graph whose user ids are usernames' ids and whose
+     *         asMap() equals guessFollowsGraph(tweets)
+     */
+    public static CompactFollowsGraph guessFollowsGraph(List<Tweet> tweets, UsernameDictionary usernames) {
+        return CompactFollowsGraph.fromTweets(tweets, usernames);
     }
 
     /**
@@ -74,49 +92,27 @@ public class SocialNetwork {
      *         descending order of follower count.
      */
     public static List<String> influencers(Map<String, Set<String>> followsGraph) {
-        // idea: 
-        // from followsGraph compute ansMap: username: num_of_ppl_follow_this_user
-        // then sort ansMap by value
-        // then extract the keyset of ansMap
-        
-        // idea2:
-        // first make followsGraph all lowercase
-        // then merge all the value set into a list
-        // then sort the elements in the list by their frequency
-        
-        //
-        // not specified when number of followers has draw
-        Map<String, Set<String>> followsGraphLowered = new HashMap<String, Set<String>>();
-        for (String key : followsGraph.keySet()) {
-            followsGraphLowered.put(key.toLowerCase(), 
-                                    followsGraph.get(key).stream()
-                                                         .map(s -> s.toLowerCase())
-                                                         .collect(Collectors.toSet()));
-        }
+        // not specified when number of followers has draw,
+        // choose alphabetical order of the lowercase usernames
+        long timer = Metrics.start();
+        List<String> ranked = new FollowerRanking(followsGraph).ranked();
+        Metrics.record(Metrics.Op.INFLUENCERS, timer, 0, ranked.size());
+        return ranked;
+    }
 
-        Map<String, Integer> freqMap = new HashMap<String, Integer>();
-        for (Map.Entry<String, Set<String>> e: followsGraphLowered.entrySet()) {
-            Set<String> vals = e.getValue();
-            
-            for (String v : vals) {
-                if (freqMap.containsKey(v)) {
-                    freqMap.put(v, freqMap.get(v)+1);
-                } else { 
-                    freqMap.put(v, 1);
-                }
-            }   
-        }
-        
-        
-        Map<String, Integer> sortedFreqMap = freqMap.entrySet()
-                                                    .stream()
-                                                    .sorted(Map.Entry.comparingByKey())
-                                                    .collect(Collectors.toMap(Map.Entry::getKey, 
-                                                                             Map.Entry::getValue, (oldValue, newValue) -> oldValue, LinkedHashMap::new));
-        
-        
-        return new ArrayList<String>(sortedFreqMap.keySet());
-        
+    /**
+     * Find the people in a social network who have the greatest influence, in
+     * the sense of PageRank: being followed by influential people counts for
+     * more than being followed by people nobody follows.
+     * 
+     * @param followsGraph
+     *            a social network (as defined above)
+     * @return a list of all distinct Twitter usernames in followsGraph, in
+     *         lowercase, in descending order of InfluenceRank score; users
+     *         with equal scores in alphabetical order
+     */
+    public static List<String> influencersByRank(Map<String, Set<String>> followsGraph) {
+        return InfluenceRank.compute(CompactFollowsGraph.fromGraph(followsGraph)).ranked();
     }
 
     /* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
@@ -0,0 +1,122 @@
+package twitter;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable index of tweet positions sorted by timestamp, answering "which
+ * tweets were sent during this timespan" with two binary searches.
+ * 
+ * Timestamps are kept as primitive epoch seconds and nanosecond adjustments,
+ * so searching never touches an Instant object.
+ */
+class TimestampIndex {
+
+    private final long[] seconds;
+    private final int[] nanos;
+    private final int[] positions;
+    /* Rep invariant:
+     *    seconds.length == nanos.length == positions.length
+     *    positions is a permutation of 0..positions.length-1
+     *    (seconds[k], nanos[k]) is the timestamp of the tweet at positions[k],
+     *    and is nondecreasing in k; equal timestamps keep increasing positions
+     * Abstraction function:
+     *    represents the tweets at positions[k], listed in order of their
+     *    timestamps (seconds[k], nanos[k])
+     * Safety from rep exposure:
+     *    all fields are private and never returned
+     */
+
+    /**
+     * Build the index.
+     * 
+     * @param tweets tweets to index, not modified
+     */
+    TimestampIndex(List<Tweet> tweets) {
+        final int n = tweets.size();
+        long[] unsortedSeconds = new long[n];
+        int[] unsortedNanos = new int[n];
+        for (int i = 0; i < n; i++) {
+            Instant ts = tweets.get(i).getTimestamp();
+            unsortedSeconds[i] = ts.getEpochSecond();
+            unsortedNanos[i] = ts.getNano();
+        }
+
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        IntSorter.sort(order, (a, b) -> compare(unsortedSeconds[a], unsortedNanos[a],
+                                                unsortedSeconds[b], unsortedNanos[b]));
+
+        this.positions = order;
+        this.seconds = new long[n];
+        this.nanos = new int[n];
+        for (int k = 0; k < n; k++) {
+            seconds[k] = unsortedSeconds[order[k]];
+            nanos[k] = unsortedNanos[order[k]];
+        }
+    }
+
+    /**
+     * Find the tweets sent during a timespan.
+     * 
+     * @param timespan timespan, including its endpoints
+     * @return positions of the tweets whose timestamp is in timespan, in
+     *         increasing order
+     */
+    int[] inTimespan(Timespan timespan) {
+        int[] matches = Arrays.copyOfRange(positions, lowerBound(timespan), upperBound(timespan));
+        Arrays.sort(matches);
+        return matches;
+    }
+
+    /**
+     * @param timespan timespan, including its endpoints
+     * @return number of tweets whose timestamp is in timespan
+     */
+    int countInTimespan(Timespan timespan) {
+        return upperBound(timespan) - lowerBound(timespan);
+    }
+
+    /*
+     * @return first k whose timestamp is >= timespan's start
+     */
+    private int lowerBound(Timespan timespan) {
+        Instant start = timespan.getStart();
+        return search(start.getEpochSecond(), start.getNano(), false);
+    }
+
+    /*
+     * @return first k whose timestamp is > timespan's end
+     */
+    private int upperBound(Timespan timespan) {
+        Instant end = timespan.getEnd();
+        return search(end.getEpochSecond(), end.getNano(), true);
+    }
+
+    /*
+     * Binary search for the first k with timestamp > (s, ns) if strict,
+     * or >= (s, ns) otherwise.
+     */
+    private int search(long s, int ns, boolean strict) {
+        int lo = 0;
+        int hi = positions.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = compare(seconds[mid], nanos[mid], s, ns);
+            if (cmp < 0 || (strict && cmp == 0)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int compare(long s1, int ns1, long s2, int ns2) {
+        int cmp = Long.compare(s1, s2);
+        return cmp != 0 ? cmp : Integer.compare(ns1, ns2);
+    }
+}
@@ -0,0 +1,295 @@
+package twitter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * TweetFile reads and writes newline-delimited tweet files, so that archives
+ * too big for the heap can be streamed into FollowsGraphBuilder, indexes and
+ * other consumers one tweet at a time.
+ * 
+ * Each line of a tweet file is one UTF-8 record of four tab-separated fields:
+ * 
+ *     id TAB author TAB timestamp TAB text
+ * 
+ * where id is a decimal long, timestamp is an ISO-8601 instant as printed by
+ * Instant.toString(), and text has backslash, tab, newline and carriage
+ * return written as \\, \t, \n and \r. Empty lines are ignored, and the last
+ * line need not end with a newline.
+ */
+public class TweetFile {
+
+    /*
+     * Bytes mapped at a time. A window is extended when a single record is
+     * longer than this.
+     */
+    private static final int DEFAULT_WINDOW = 64 << 20;
+
+    /**
+     * Write tweets to a file, replacing its contents.
+     * 
+     * @param file
+     *            file to write
+     * @param tweets
+     *            tweets to write, in order
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path file, Iterable<Tweet> tweets) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            StringBuilder line = new StringBuilder();
+            for (Tweet t : tweets) {
+                line.setLength(0);
+                line.append(t.getId()).append('\t')
+                    .append(t.getAuthor()).append('\t')
+                    .append(t.getTimestamp()).append('\t');
+                String text = t.getText();
+                for (int i = 0; i < text.length(); i++) {
+                    char c = text.charAt(i);
+                    switch (c) {
+                    case '\\': line.append("\\\\"); break;
+                    case '\t': line.append("\\t"); break;
+                    case '\n': line.append("\\n"); break;
+                    case '\r': line.append("\\r"); break;
+                    default:   line.append(c);
+                    }
+                }
+                line.append('\n');
+                out.append(line);
+            }
+        }
+    }
+
+    /**
+     * Stream the tweets in a file, parsing records lazily from a memory map.
+     * 
+     * Only one window of the file is mapped at a time, and only the current
+     * record is decoded, so memory use does not grow with the file. The stream
+     * must be closed (e.g. with try-with-resources) to release the file.
+     * 
+     * @param file
+     *            tweet file to read
+     * @return a sequential, ordered stream of the tweets in the file; a
+     *         malformed record makes the stream throw UncheckedIOException
+     * @throws IOException if the file cannot be opened
+     */
+    public static Stream<Tweet> stream(Path file) throws IOException {
+        return stream(file, DEFAULT_WINDOW);
+    }
+
+    /*
+     * stream(), with a given window size (for testing window boundaries).
+     */
+    static Stream<Tweet> stream(Path file, int window) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        Reader reader;
+        try {
+            reader = new Reader(channel, window);
+        } catch (IOException | RuntimeException e) {
+            // the reader never took ownership of the channel
+            try {
+                channel.close();
+            } catch (IOException closing) {
+                e.addSuppressed(closing);
+            }
+            throw e;
+        }
+        Spliterator<Tweet> tweets = Spliterators.spliteratorUnknownSize(reader,
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+        return StreamSupport.stream(tweets, false).onClose(reader::close);
+    }
+
+    /*
+     * Iterator over the records of a mapped file.
+     */
+    private static class Reader implements Iterator<Tweet> {
+
+        private final FileChannel channel;
+        private final long fileSize;
+        private final int window;
+
+        private MappedByteBuffer buffer;
+        private long bufferStart = 0;
+        private long position = 0;   // file offset of the next unread byte
+        private byte[] scratch = new byte[512];
+        private Tweet next;
+        /* Rep invariant:
+         *    buffer maps [bufferStart, bufferStart + buffer.capacity()) of the file,
+         *    or is null before the first map
+         *    bufferStart <= position <= fileSize
+         *    next is the parsed record before position, not yet returned, or null
+         */
+
+        Reader(FileChannel channel, int window) throws IOException {
+            this.channel = channel;
+            this.fileSize = channel.size();
+            this.window = window;
+        }
+
+        @Override public boolean hasNext() {
+            if (next == null) {
+                next = readRecord();
+            }
+            return next != null;
+        }
+
+        @Override public Tweet next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Tweet t = next;
+            next = null;
+            return t;
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            }
+        }
+
+        /*
+         * @return the next nonempty record, or null at end of file
+         */
+        private Tweet readRecord() {
+            while (position < fileSize) {
+                long recordStart = position;
+                long end = findNewline(recordStart);
+                position = end < fileSize ? end + 1 : fileSize;
+                if (end > recordStart && buffer.get((int) (end - 1 - bufferStart)) == '\r') {
+                    end--; // CRLF line end; a lone "\r" is a blank line too
+                }
+                if (end > recordStart) {
+                    return parse(recordStart, (int) (end - recordStart));
+                }
+            }
+            return null;
+        }
+
+        /*
+         * Find the newline ending the record at from, remapping so that the
+         * whole record is inside buffer.
+         * 
+         * @return offset of the newline, or fileSize if the record is the last
+         *         and has none
+         */
+        private long findNewline(long from) {
+            int size = window;
+            if (buffer == null || from >= bufferStart + buffer.capacity()) {
+                map(from, size);
+            }
+            long scanned = from;
+            while (true) {
+                long bufferEnd = bufferStart + buffer.capacity();
+                for (long p = scanned; p < bufferEnd; p++) {
+                    if (buffer.get((int) (p - bufferStart)) == '\n') {
+                        return p;
+                    }
+                }
+                if (bufferEnd >= fileSize) {
+                    return fileSize;
+                }
+                // record runs past the window: map again from its start, bigger if needed
+                scanned = bufferEnd;
+                if (bufferStart == from) {
+                    size = (int) Math.min(Integer.MAX_VALUE, 2L * size);
+                }
+                map(from, size);
+            }
+        }
+
+        private void map(long start, int size) {
+            try {
+                bufferStart = start;
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size, fileSize - start));
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            }
+        }
+
+        /*
+         * Parse the record of length bytes at file offset start, which is
+         * inside buffer and excludes the line end.
+         */
+        private Tweet parse(long start, int length) {
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            int offset = (int) (start - bufferStart);
+            for (int i = 0; i < length; i++) {
+                scratch[i] = buffer.get(offset + i);
+            }
+
+            int tab1 = indexOf(scratch, '\t', 0, length);
+            int tab2 = indexOf(scratch, '\t', tab1 + 1, length);
+            int tab3 = indexOf(scratch, '\t', tab2 + 1, length);
+            if (tab1 < 0 || tab2 < 0 || tab3 < 0) {
+                throw malformed(start, "expected 4 tab-separated fields");
+            }
+            try {
+                long id = Long.parseLong(new String(scratch, 0, tab1, StandardCharsets.US_ASCII));
+                String author = new String(scratch, tab1 + 1, tab2 - tab1 - 1, StandardCharsets.UTF_8);
+                Instant timestamp = Instant.parse(
+                        new String(scratch, tab2 + 1, tab3 - tab2 - 1, StandardCharsets.US_ASCII));
+                String text = unescape(scratch, tab3 + 1, length, start);
+                return new Tweet(id, author, text, timestamp);
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw malformed(start, e.getMessage());
+            }
+        }
+
+        /*
+         * Decode bytes[from..to) as UTF-8 text, resolving escapes in place.
+         */
+        private static String unescape(byte[] bytes, int from, int to, long recordStart) {
+            int write = from;
+            for (int read = from; read < to; read++) {
+                byte b = bytes[read];
+                if (b == '\\') {
+                    if (++read == to) {
+                        throw malformed(recordStart, "dangling backslash");
+                    }
+                    switch (bytes[read]) {
+                    case '\\': b = '\\'; break;
+                    case 't':  b = '\t'; break;
+                    case 'n':  b = '\n'; break;
+                    case 'r':  b = '\r'; break;
+                    default:   throw malformed(recordStart, "unknown escape \\" + (char) bytes[read]);
+                    }
+                }
+                bytes[write++] = b;
+            }
+            return new String(bytes, from, write - from, StandardCharsets.UTF_8);
+        }
+
+        private static int indexOf(byte[] bytes, char c, int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (bytes[i] == c) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static UncheckedIOException malformed(long offset, String reason) {
+            return new UncheckedIOException(new IOException(
+                    "malformed tweet record at byte " + offset + ": " + reason));
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * TweetIndex is an immutable index over a fixed list of tweets, built once so
+ * that many queries can be answered without rescanning the whole list.
+ * 
+ * Each query method has the same spec as the Filter method of the same name,
+ * applied to the list of tweets the index was built from.
+ */
+public class TweetIndex {
+
+    private final List<Tweet> tweets;
+    private final Map<String, PostingList> words;
+    private final TimestampIndex timestamps;
+    private final AuthorIndex authors;
+    /* Rep invariant:
+     *    every key of words is lowercase, nonempty, and contains no separator
+     *    (as defined by WordTokenizer)
+     *    words.get(w) lists exactly the positions in tweets whose text contains
+     *    the word w when compared case-insensitively
+     *    timestamps and authors index exactly the tweets in tweets
+     * Abstraction function:
+     *    represents the list of tweets, with its case-folded inverted word index,
+     *    its timestamp index and its author index
+     * Safety from rep exposure:
+     *    tweets is an unmodifiable copy of the caller's list, Tweet is immutable,
+     *    and the indexes are never returned
+     */
+
+    /**
+     * Build an index.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this
+     *            constructor. Later changes to the list do not affect the index.
+     */
+    public TweetIndex(List<Tweet> tweets) {
+        this.tweets = Collections.unmodifiableList(new ArrayList<Tweet>(tweets));
+
+        Map<String, PostingList.Builder> builders = new HashMap<String, PostingList.Builder>();
+        for (int i = 0; i < this.tweets.size(); i++) {
+            String text = this.tweets.get(i).getText();
+            int start = WordTokenizer.wordStart(text, 0);
+            while (start < text.length()) {
+                int end = WordTokenizer.wordEnd(text, start);
+                String word = text.substring(start, end).toLowerCase();
+                PostingList.Builder postings = builders.get(word);
+                if (postings == null) {
+                    postings = new PostingList.Builder();
+                    builders.put(word, postings);
+                }
+                postings.add(i);
+                start = WordTokenizer.wordStart(text, end);
+            }
+        }
+
+        this.words = new HashMap<String, PostingList>(builders.size() * 4 / 3 + 1);
+        for (Map.Entry<String, PostingList.Builder> e : builders.entrySet()) {
+            this.words.put(e.getKey(), e.getValue().build());
+        }
+        
+        this.timestamps = new TimestampIndex(this.tweets);
+        this.authors = new AuthorIndex(this.tweets);
+    }
+
+    /**
+     * @return the indexed tweets, in the order they were given, as an
+     *         unmodifiable list
+     */
+    public List<Tweet> tweets() {
+        return tweets;
+    }
+
+    /**
+     * @return number of indexed tweets
+     */
+    public int size() {
+        return tweets.size();
+    }
+
+    /**
+     * Find indexed tweets that contain certain words.
+     * 
+     * @param words
+     *            a list of words to search for in the tweets.
+     *            A word is a nonempty sequence of nonspace characters.
+     * @return the same list Filter.containing(tweets(), words) returns
+     */
+    public List<Tweet> containing(List<String> words) {
+        return select(positionsContaining(words));
+    }
+
+    /**
+     * Find indexed tweets written by a particular user.
+     * 
+     * @param username
+     *            Twitter username, required to be a valid Twitter username as
+     *            defined by Tweet.getAuthor()'s spec.
+     * @return the same list Filter.writtenBy(tweets(), username) returns
+     */
+    public List<Tweet> writtenBy(String username) {
+        return select(positionsWrittenBy(username));
+    }
+
+    /**
+     * Find indexed tweets that were sent during a particular timespan.
+     * 
+     * @param timespan
+     *            timespan
+     * @return the same list Filter.inTimespan(tweets(), timespan) returns
+     */
+    public List<Tweet> inTimespan(Timespan timespan) {
+        return select(positionsInTimespan(timespan));
+    }
+
+    /*
+     * @return positions of the tweets containing any of words, increasing
+     */
+    int[] positionsContaining(List<String> words) {
+        List<PostingList> matches = postings(words);
+        if (matches.isEmpty()) {
+            return new int[0];
+        }
+        return PostingList.union(matches.toArray(new PostingList[matches.size()]));
+    }
+
+    /*
+     * @return an upper bound on the number of tweets containing any of words,
+     *         without decoding any postings
+     */
+    int estimateContaining(List<String> words) {
+        int estimate = 0;
+        for (PostingList postings : postings(words)) {
+            estimate += postings.size();
+        }
+        return Math.min(estimate, tweets.size());
+    }
+
+    /*
+     * @return the distinct posting lists of words, in O(words) time
+     */
+    private List<PostingList> postings(List<String> words) {
+        List<PostingList> matches = new ArrayList<PostingList>();
+        Set<PostingList> seen = Collections.newSetFromMap(new IdentityHashMap<PostingList, Boolean>());
+        for (String w : words) {
+            PostingList postings = this.words.get(w.toLowerCase());
+            if (postings != null && seen.add(postings)) {
+                matches.add(postings);
+            }
+        }
+        return matches;
+    }
+
+    /*
+     * @return positions of the tweets written by username, increasing
+     */
+    int[] positionsWrittenBy(String username) {
+        return authors.writtenBy(username);
+    }
+
+    /*
+     * @return number of tweets written by username
+     */
+    int countWrittenBy(String username) {
+        return authors.countWrittenBy(username);
+    }
+
+    /*
+     * @return positions of the tweets sent during timespan, increasing
+     */
+    int[] positionsInTimespan(Timespan timespan) {
+        return timestamps.inTimespan(timespan);
+    }
+
+    /*
+     * @return number of tweets sent during timespan
+     */
+    int countInTimespan(Timespan timespan) {
+        return timestamps.countInTimespan(timespan);
+    }
+
+    /*
+     * @return the tweets at the given increasing positions, in that order
+     */
+    private List<Tweet> select(int[] positions) {
+        List<Tweet> answer = new ArrayList<Tweet>(positions.length);
+        for (int p : positions) {
+            answer.add(tweets.get(p));
+        }
+        return answer;
+    }
+}
@@ -0,0 +1,262 @@
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * TweetQuery is an immutable conjunction of Filter predicates, such as "tweets
+ * by X, sent during W, containing any of the words Z", run as one plan.
+ * 
+ * Running a query gives the same list as chaining the corresponding Filter
+ * calls (writtenBy, then inTimespan, then containing), in input order:
+ *    - on a List<Tweet>, the predicates are fused into a single pass with no
+ *      intermediate lists;
+ *    - on a TweetIndex, the most selective indexed predicate produces the
+ *      candidates, and the other predicates are checked on those only.
+ * explain() describes the plan that would be used.
+ */
+public class TweetQuery {
+
+    private final String author;
+    private final Timespan timespan;
+    private final List<String> words;
+    private final KeywordMatcher matcher;
+    /* Rep invariant:
+     *    words == null iff matcher == null
+     *    matcher is compiled from words
+     * Abstraction function:
+     *    represents the predicate "written by author (if author != null), and
+     *    sent during timespan (if timespan != null), and containing one of
+     *    words (if words != null)"
+     * Safety from rep exposure:
+     *    words is an unmodifiable copy; Timespan and String are immutable
+     */
+
+    private TweetQuery(Builder b) {
+        this.author = b.author;
+        this.timespan = b.timespan;
+        this.words = b.words == null ? null : Collections.unmodifiableList(new ArrayList<String>(b.words));
+        this.matcher = b.words == null ? null : new KeywordMatcher(b.words);
+    }
+
+    /**
+     * @return a new builder for a query with no predicates
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Mutable builder for a TweetQuery. Each predicate may be set at most once;
+     * setting it again replaces it.
+     */
+    public static class Builder {
+        private String author;
+        private Timespan timespan;
+        private List<String> words;
+
+        /**
+         * @param username Twitter username; keep tweets written by username,
+         *                 as Filter.writtenBy
+         * @return this builder
+         */
+        public Builder writtenBy(String username) {
+            this.author = username;
+            return this;
+        }
+
+        /**
+         * @param timespan keep tweets sent during timespan, as Filter.inTimespan
+         * @return this builder
+         */
+        public Builder inTimespan(Timespan timespan) {
+            this.timespan = timespan;
+            return this;
+        }
+
+        /**
+         * @param words keep tweets containing any of words, as Filter.containing
+         * @return this builder
+         */
+        public Builder containingAny(List<String> words) {
+            this.words = new ArrayList<String>(words);
+            return this;
+        }
+
+        /**
+         * @return the query built so far
+         */
+        public TweetQuery build() {
+            return new TweetQuery(this);
+        }
+    }
+
+    /**
+     * Run this query over a list in one pass.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method.
+     * @return the tweets matching every predicate, in input order
+     */
+    public List<Tweet> execute(List<Tweet> tweets) {
+        List<Tweet> answer = new ArrayList<Tweet>();
+        for (Tweet t : tweets) {
+            if (matches(t)) {
+                answer.add(t);
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Run this query using an index.
+     * 
+     * @param index
+     *            index over a list of tweets with distinct ids
+     * @return the same list as execute(index.tweets())
+     */
+    public List<Tweet> execute(TweetIndex index) {
+        Plan plan = plan(index);
+        int[] candidates;
+        switch (plan.driver) {
+        case AUTHOR:   candidates = index.positionsWrittenBy(author); break;
+        case TIMESPAN: candidates = index.positionsInTimespan(timespan); break;
+        case WORDS:    candidates = index.positionsContaining(words); break;
+        default:       return execute(index.tweets());
+        }
+
+        List<Tweet> tweets = index.tweets();
+        List<Tweet> answer = new ArrayList<Tweet>();
+        for (int p : candidates) {
+            Tweet t = tweets.get(p);
+            if (matches(t)) {
+                answer.add(t);
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * @param tweets a list of tweets
+     * @return a description of how execute(tweets) runs this query
+     */
+    public String explain(List<Tweet> tweets) {
+        return "scan " + tweets.size() + " tweets, filter " + predicates();
+    }
+
+    /**
+     * @param index an index over a list of tweets
+     * @return a description of how execute(index) runs this query, with the
+     *         estimated number of candidates for each indexed predicate
+     */
+    public String explain(TweetIndex index) {
+        Plan plan = plan(index);
+        if (plan.driver == Driver.SCAN) {
+            return explain(index.tweets());
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("index lookup ").append(plan.driver.describe(this))
+          .append(" (").append(plan.estimate).append(" of ").append(index.size()).append(" tweets)");
+        sb.append(", filter ").append(predicates());
+        sb.append("; estimates:");
+        if (author != null) {
+            sb.append(" author=").append(index.countWrittenBy(author));
+        }
+        if (timespan != null) {
+            sb.append(" timespan=").append(index.countInTimespan(timespan));
+        }
+        if (words != null) {
+            sb.append(" words<=").append(index.estimateContaining(words));
+        }
+        return sb.toString();
+    }
+
+    private String predicates() {
+        List<String> parts = new ArrayList<String>();
+        for (Driver d : new Driver[] {Driver.AUTHOR, Driver.TIMESPAN, Driver.WORDS}) {
+            if (d.isSet(this)) {
+                parts.add(d.describe(this));
+            }
+        }
+        return parts.isEmpty() ? "[none]" : parts.toString();
+    }
+
+    /*
+     * Which predicate produces the candidate tweets.
+     */
+    private enum Driver {
+        SCAN, AUTHOR, TIMESPAN, WORDS;
+
+        boolean isSet(TweetQuery q) {
+            switch (this) {
+            case AUTHOR:   return q.author != null;
+            case TIMESPAN: return q.timespan != null;
+            case WORDS:    return q.words != null;
+            default:       return true;
+            }
+        }
+
+        String describe(TweetQuery q) {
+            switch (this) {
+            case AUTHOR:   return "writtenBy(" + q.author + ")";
+            case TIMESPAN: return "inTimespan(" + q.timespan + ")";
+            case WORDS:    return "containing(" + q.words + ")";
+            default:       return "scan";
+            }
+        }
+    }
+
+    /*
+     * The chosen driver and its estimated number of candidates.
+     */
+    private static class Plan {
+        private final Driver driver;
+        private final int estimate;
+
+        Plan(Driver driver, int estimate) {
+            this.driver = driver;
+            this.estimate = estimate;
+        }
+    }
+
+    private Plan plan(TweetIndex index) {
+        Plan best = new Plan(Driver.SCAN, index.size());
+        if (author != null) {
+            best = cheaper(best, new Plan(Driver.AUTHOR, index.countWrittenBy(author)));
+        }
+        if (timespan != null) {
+            best = cheaper(best, new Plan(Driver.TIMESPAN, index.countInTimespan(timespan)));
+        }
+        if (words != null) {
+            best = cheaper(best, new Plan(Driver.WORDS, index.estimateContaining(words)));
+        }
+        return best;
+    }
+
+    private static Plan cheaper(Plan a, Plan b) {
+        // an index lookup beats a scan of the same size: it skips the fused checks
+        return b.estimate < a.estimate || (a.driver == Driver.SCAN && b.estimate == a.estimate) ? b : a;
+    }
+
+    /*
+     * @return true iff t satisfies every predicate of this query
+     */
+    private boolean matches(Tweet t) {
+        if (author != null && !t.getAuthor().equalsIgnoreCase(author)) {
+            return false;
+        }
+        if (timespan != null) {
+            Instant ts = t.getTimestamp();
+            if (ts.isBefore(timespan.getStart()) || ts.isAfter(timespan.getEnd())) {
+                return false;
+            }
+        }
+        return matcher == null || matcher.matches(t.getText());
+    }
+
+    @Override public String toString() {
+        return "TweetQuery" + predicates();
+    }
+}
@@ -0,0 +1,94 @@
+package twitter;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Spliterator over the tweets of a random-access list that satisfy a
+ * predicate, in list order.
+ * 
+ * The filter is applied inside tryAdvance() and forEachRemaining(), so a
+ * short-circuiting stream (limit, findFirst, anyMatch) stops reading the list
+ * as soon as it has enough matches. trySplit() halves the remaining index
+ * range, so parallel streams over large lists split evenly.
+ * 
+ * The list must not be modified while the spliterator is in use.
+ */
+class TweetSpliterator implements Spliterator<Tweet> {
+
+    /*
+     * Ranges smaller than this are not split: testing a tweet is cheap, and
+     * smaller tasks cost more to schedule than to run.
+     */
+    private static final int MIN_SPLIT = 1024;
+
+    private final List<Tweet> tweets;
+    private final Predicate<? super Tweet> predicate;
+    private int index;
+    private final int fence;
+    /* Rep invariant:
+     *    tweets is RandomAccess, 0 <= index <= fence <= tweets.size()
+     * Abstraction function:
+     *    represents the sequence of tweets[i] for index <= i < fence that
+     *    satisfy predicate, in increasing order of i
+     */
+
+    /**
+     * @param tweets a random-access list, not modified
+     * @param predicate which tweets to report
+     * @param from first index, inclusive
+     * @param to last index, exclusive
+     */
+    TweetSpliterator(List<Tweet> tweets, Predicate<? super Tweet> predicate, int from, int to) {
+        this.tweets = tweets;
+        this.predicate = predicate;
+        this.index = from;
+        this.fence = to;
+    }
+
+    @Override public boolean tryAdvance(Consumer<? super Tweet> action) {
+        while (index < fence) {
+            Tweet t = tweets.get(index++);
+            if (predicate.test(t)) {
+                action.accept(t);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override public void forEachRemaining(Consumer<? super Tweet> action) {
+        final int end = fence;
+        for (int i = index; i < end; i++) {
+            Tweet t = tweets.get(i);
+            if (predicate.test(t)) {
+                action.accept(t);
+            }
+        }
+        index = end;
+    }
+
+    @Override public Spliterator<Tweet> trySplit() {
+        if (fence - index < 2 * MIN_SPLIT) {
+            return null;
+        }
+        int mid = (index + fence) >>> 1;
+        Spliterator<Tweet> prefix = new TweetSpliterator(tweets, predicate, index, mid);
+        index = mid;
+        return prefix;
+    }
+
+    /**
+     * @return number of tweets left to test, an upper bound on the number of
+     *         tweets left to report
+     */
+    @Override public long estimateSize() {
+        return fence - index;
+    }
+
+    @Override public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+}
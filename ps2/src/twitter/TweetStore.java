@@ -0,0 +1,324 @@
+package twitter;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * TweetStore is an immutable, columnar store of tweets kept off the Java heap.
+ * 
+ * Row r of the store holds one tweet:
+ *    - its id and epoch second in long columns, and its nanosecond
+ *      adjustment in an int column;
+ *    - its author as an int column of ids into a small on-heap dictionary of
+ *      author spellings, each mapped to its UsernameDictionary id;
+ *    - its text as UTF-8 bytes in a shared byte arena, located by an int
+ *      column of offsets.
+ * All columns are direct ByteBuffers, so a large store costs the heap only
+ * its author dictionary, and scanning a column reads sequential memory
+ * instead of chasing pointers through Tweet and Instant objects.
+ * 
+ * Extract, Filter and SocialNetwork have overloads that run directly on a
+ * store; Tweet objects are only made for rows that a caller asks for.
+ * 
+ * Each column is a single ByteBuffer, so a store holds at most about 2^28
+ * tweets and 2 GB of text; larger archives are split across several stores.
+ */
+public class TweetStore {
+
+    private final int size;
+    private final ByteBuffer ids;
+    private final ByteBuffer seconds;
+    private final ByteBuffer nanos;
+    private final ByteBuffer authors;
+    private final ByteBuffer textOffsets;
+    private final ByteBuffer text;
+    private final String[] authorNames;
+    private final int[] authorFolded;
+    private final UsernameDictionary usernames;
+    /* Rep invariant:
+     *    ids and seconds hold size longs; nanos, authors hold size ints;
+     *    textOffsets holds size + 1 nondecreasing ints starting at 0, the last
+     *    equal to the number of bytes in text
+     *    0 <= authors[r] < authorNames.length; authorNames are distinct
+     *    authorFolded[a] == usernames.find(authorNames[a])
+     *    all buffers are read-only views, positioned at 0, in native order
+     * Abstraction function:
+     *    represents the list of tweets whose row r is
+     *    Tweet(ids[r], authorNames[authors[r]], UTF-8 text[textOffsets[r]..textOffsets[r+1]),
+     *          Instant.ofEpochSecond(seconds[r], nanos[r]))
+     * Safety from rep exposure:
+     *    buffers are read-only and never returned; authorNames and authorFolded
+     *    are private and only Strings and new Tweets are returned; usernames
+     *    is shared on purpose, but only ever grows, which keeps the invariant
+     */
+
+    private TweetStore(Builder b) {
+        this.size = b.size;
+        this.ids = seal(b.ids);
+        this.seconds = seal(b.seconds);
+        this.nanos = seal(b.nanos);
+        this.authors = seal(b.authors);
+        this.textOffsets = seal(b.textOffsets);
+        this.text = seal(b.text);
+        this.authorNames = b.authorNames.toArray(new String[0]);
+        this.authorFolded = Arrays.copyOf(b.authorFolded, authorNames.length);
+        this.usernames = b.usernames;
+    }
+
+    private static ByteBuffer seal(ByteBuffer column) {
+        ByteBuffer copy = ByteBuffer.allocateDirect(column.position()).order(ByteOrder.nativeOrder());
+        ByteBuffer written = column.duplicate();
+        written.flip();
+        copy.put(written);
+        copy.flip();
+        return copy.asReadOnlyBuffer().order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Store a list of tweets.
+     * 
+     * @param tweets
+     *            tweets to store, not modified
+     * @return a store whose rows are the tweets, in order
+     */
+    public static TweetStore of(List<Tweet> tweets) {
+        Builder builder = new Builder();
+        for (Tweet t : tweets) {
+            builder.add(t);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return number of tweets (rows) in this store
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param row requires 0 <= row < size()
+     * @return id of the tweet in row
+     */
+    public long id(int row) {
+        return ids.getLong(row * Long.BYTES);
+    }
+
+    /**
+     * @param row requires 0 <= row < size()
+     * @return epoch second of the timestamp of the tweet in row
+     */
+    public long epochSecond(int row) {
+        return seconds.getLong(row * Long.BYTES);
+    }
+
+    /**
+     * @param row requires 0 <= row < size()
+     * @return nanosecond adjustment of the timestamp of the tweet in row
+     */
+    public int nano(int row) {
+        return nanos.getInt(row * Integer.BYTES);
+    }
+
+    /**
+     * @param row requires 0 <= row < size()
+     * @return author of the tweet in row, as written
+     */
+    public String author(int row) {
+        return authorNames[authors.getInt(row * Integer.BYTES)];
+    }
+
+    /**
+     * @param row requires 0 <= row < size()
+     * @return text of the tweet in row
+     */
+    public String text(int row) {
+        return new TextCursor().text(row);
+    }
+
+    /**
+     * Materialize one row.
+     * 
+     * @param row requires 0 <= row < size()
+     * @return the tweet in row
+     */
+    public Tweet get(int row) {
+        return new Tweet(id(row), author(row), text(row), Instant.ofEpochSecond(epochSecond(row), nano(row)));
+    }
+
+    /**
+     * @return an unmodifiable list view of this store that materializes each
+     *         tweet when it is read
+     */
+    public List<Tweet> asList() {
+        return new TweetList();
+    }
+
+    /**
+     * @return the dictionary that assigns this store's author ids
+     */
+    public UsernameDictionary usernames() {
+        return usernames;
+    }
+
+    /**
+     * @param row requires 0 <= row < size()
+     * @return usernames().idOf(author(row)), without a lookup
+     */
+    public int authorId(int row) {
+        return authorFolded[authors.getInt(row * Integer.BYTES)];
+    }
+
+    /*
+     * Decodes row texts through one reusable buffer view and scratch array,
+     * for scans that read the text of many rows. Not thread-safe; each scan
+     * makes its own cursor.
+     */
+    class TextCursor {
+        private final ByteBuffer view = text.duplicate();
+        private byte[] scratch = new byte[256];
+
+        String text(int row) {
+            int start = textOffsets.getInt(row * Integer.BYTES);
+            int end = textOffsets.getInt((row + 1) * Integer.BYTES);
+            int length = end - start;
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            view.position(start);
+            view.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    /*
+     * Read-only List view that materializes rows on demand.
+     */
+    private class TweetList extends AbstractList<Tweet> implements RandomAccess {
+        @Override public Tweet get(int row) {
+            if (row < 0 || row >= size) {
+                throw new IndexOutOfBoundsException("row " + row + " of " + size);
+            }
+            return TweetStore.this.get(row);
+        }
+
+        @Override public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Mutable builder that appends tweets to off-heap columns. Not thread-safe.
+     */
+    public static class Builder {
+
+        private int size = 0;
+        private ByteBuffer ids = column(1024 * Long.BYTES);
+        private ByteBuffer seconds = column(1024 * Long.BYTES);
+        private ByteBuffer nanos = column(1024 * Integer.BYTES);
+        private ByteBuffer authors = column(1024 * Integer.BYTES);
+        private ByteBuffer textOffsets = column(1025 * Integer.BYTES).putInt(0);
+        private ByteBuffer text = column(64 * 1024);
+        private final List<String> authorNames = new ArrayList<String>();
+        private final Map<String, Integer> authorIds = new HashMap<String, Integer>();
+        private int[] authorFolded = new int[16];
+        private final UsernameDictionary usernames;
+
+        /**
+         * Make a builder with its own username dictionary.
+         */
+        public Builder() {
+            this(new UsernameDictionary());
+        }
+
+        /**
+         * Make a builder whose author ids come from a shared dictionary.
+         * 
+         * @param usernames dictionary to add authors to
+         */
+        public Builder(UsernameDictionary usernames) {
+            this.usernames = usernames;
+        }
+
+        private static ByteBuffer column(int bytes) {
+            return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+        }
+
+        /*
+         * @return column, or a copy with room for at least extra more bytes
+         */
+        private static ByteBuffer ensure(ByteBuffer column, int extra) {
+            if (column.remaining() >= extra) {
+                return column;
+            }
+            long needed = (long) column.position() + extra;
+            long capacity = Math.max(needed, Math.min(Integer.MAX_VALUE, 2L * column.capacity()));
+            if (capacity > Integer.MAX_VALUE) {
+                throw new IllegalStateException("TweetStore column is full");
+            }
+            ByteBuffer bigger = column((int) capacity);
+            column.flip();
+            bigger.put(column);
+            return bigger;
+        }
+
+        /**
+         * Append a tweet.
+         * 
+         * @param tweet tweet to store in the next row
+         * @return this builder
+         */
+        public Builder add(Tweet tweet) {
+            Instant ts = tweet.getTimestamp();
+            ids = ensure(ids, Long.BYTES);
+            ids.putLong(tweet.getId());
+            seconds = ensure(seconds, Long.BYTES);
+            seconds.putLong(ts.getEpochSecond());
+            nanos = ensure(nanos, Integer.BYTES);
+            nanos.putInt(ts.getNano());
+            authors = ensure(authors, Integer.BYTES);
+            authors.putInt(authorId(tweet.getAuthor()));
+
+            byte[] utf8 = tweet.getText().getBytes(StandardCharsets.UTF_8);
+            text = ensure(text, utf8.length);
+            text.put(utf8);
+            textOffsets = ensure(textOffsets, Integer.BYTES);
+            textOffsets.putInt(text.position());
+            size++;
+            return this;
+        }
+
+        private int authorId(String author) {
+            Integer id = authorIds.get(author);
+            if (id != null) {
+                return id;
+            }
+            int newId = authorNames.size();
+            authorNames.add(author);
+            authorIds.put(author, newId);
+
+            if (newId == authorFolded.length) {
+                authorFolded = Arrays.copyOf(authorFolded, newId * 2);
+            }
+            authorFolded[newId] = usernames.idOf(author);
+            return newId;
+        }
+
+        /**
+         * @return an immutable store of the tweets added so far; the builder
+         *         may keep being used
+         */
+        public TweetStore build() {
+            return new TweetStore(this);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package twitter;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * UsernameDictionary assigns each distinct Twitter username a stable, dense
+ * int id, so that code can compare and store users as ints instead of
+ * strings.
+ * 
+ * Usernames are case-insensitive: they are case-folded once, the first time a
+ * spelling is seen, the same way MentionScanner folds mentions, and every
+ * spelling of a username gets the same id. Ids are 0, 1, 2, ... in the order
+ * usernames were first added, and never change.
+ * 
+ * A dictionary is thread-safe. Lookups of known spellings never lock and
+ * never allocate; only adding a new username takes a lock.
+ */
+public class UsernameDictionary {
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+    private volatile String[] names = new String[64];
+    private volatile int size = 0;
+    /* Rep invariant:
+     *    names[0..size-1] are distinct, case-folded usernames
+     *    ids maps names[id] to id, and may also map other spellings s of a
+     *    username to the id of InternTable.fold(s)
+     *    size and names only change while holding this object's lock, and
+     *    size is published after names[size-1] is written
+     * Abstraction function:
+     *    represents the numbering names[0] -> 0, ..., names[size-1] -> size-1,
+     *    extended to every spelling of those usernames
+     * Thread safety argument:
+     *    ids is a ConcurrentHashMap, so readers see each entry fully published;
+     *    an id is put into ids only after names has it, so a reader that gets
+     *    an id from ids can read nameOf(id); writers are serialized by the lock
+     */
+
+    /**
+     * Get the id of a username, adding it if it is new.
+     * 
+     * @param username
+     *            Twitter username, in any case, nonempty
+     * @return id of username; the same for every spelling of username
+     */
+    public int idOf(String username) {
+        Integer id = ids.get(username);
+        return id != null ? id : add(username);
+    }
+
+    /**
+     * Get the id of a username without adding it.
+     * 
+     * @param username
+     *            Twitter username, in any case
+     * @return id of username, or -1 if it has none
+     */
+    public int find(String username) {
+        Integer id = ids.get(username);
+        if (id != null) {
+            return id;
+        }
+        id = ids.get(InternTable.fold(username));
+        return id != null ? id : -1;
+    }
+
+    /**
+     * @param id
+     *            requires 0 <= id < size()
+     * @return case-folded username with that id
+     */
+    public String nameOf(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("no username with id " + id);
+        }
+        return names[id];
+    }
+
+    /**
+     * @return number of distinct usernames in this dictionary
+     */
+    public int size() {
+        return size;
+    }
+
+    private synchronized int add(String username) {
+        String folded = InternTable.fold(username);
+        Integer id = ids.get(folded);
+        if (id == null) {
+            id = size;
+            String[] current = names;
+            if (id == current.length) {
+                current = Arrays.copyOf(current, id * 2);
+            }
+            current[id] = folded;
+            names = current;
+            size = id + 1;
+            ids.put(folded, id);
+        }
+        if (!folded.equals(username)) {
+            ids.put(username, id); // so this spelling is found without folding
+        }
+        return id;
+    }
+}
@@ -0,0 +1,118 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class ApproximateInfluencersTest {
+
+    /**
+     * Testing Strategy - ApproximateInfluencers.accept(...), topK(), estimate(...)
+     * - tweets:        none, repeated edge (counted once), self-mention, mention in
+     *                  different case, self-mention in different case
+     * - candidates:    new user, existing candidate, candidate evicted by a new user
+     * - memory:        ample (agrees with FollowerRanking), tight (within errorBound)
+     * - k:             1, more than the number of users
+     * - parameters:    invalid memory
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        ApproximateInfluencers ranking = new ApproximateInfluencers(4096, 3);
+        assertEquals(Collections.emptyList(), ranking.topK());
+        assertEquals(0, ranking.estimate("alyssa"));
+        assertEquals(0, ranking.edgesCounted());
+    }
+
+    @Test
+    public void testSmall() {
+        ApproximateInfluencers ranking = new ApproximateInfluencers(1 << 16, 10);
+        ranking.accept(new Tweet(1, "alyssa", "@bbitdiddle @BBitdiddle @alyssa", d1));
+        ranking.accept(new Tweet(2, "ben", "@Bbitdiddle @alyssa", d1));
+        ranking.accept(new Tweet(3, "Alyssa", "@bbitdiddle again", d1));
+
+        assertEquals(3, ranking.edgesCounted());
+        assertEquals(Arrays.asList("bbitdiddle", "alyssa"), ranking.topK());
+        assertEquals(2, ranking.estimate("BBITDIDDLE"));
+        assertEquals(1, ranking.estimate("alyssa"));
+    }
+
+    @Test
+    public void testMixedCaseAndEviction() {
+        ApproximateInfluencers ranking = new ApproximateInfluencers(1 << 16, 1);
+        ranking.accept(new Tweet(1, "AlYssa", "@aLYSSA @BEN", d1));
+        assertEquals(Arrays.asList("ben"), ranking.topK());
+        assertEquals(0, ranking.estimate("alyssa"));
+
+        ranking.accept(new Tweet(2, "x", "@Cy", d1));
+        ranking.accept(new Tweet(3, "y", "@CY", d1));
+        assertEquals(Arrays.asList("cy"), ranking.topK());
+        ranking.accept(new Tweet(4, "z", "@cY @Ben", d1));
+        assertEquals(Arrays.asList("cy"), ranking.topK());
+        assertEquals(3, ranking.estimate("Cy"));
+        assertEquals(2, ranking.estimate("ben"));
+    }
+
+    @Test
+    public void testAmpleMemoryMatchesExact() {
+        List<Tweet> tweets = corpus(20000, 500);
+        ApproximateInfluencers ranking = new ApproximateInfluencers(1 << 22, 10);
+        ranking.acceptAll(tweets);
+
+        Map<String, Set<String>> graph = SocialNetwork.guessFollowsGraph(tweets);
+        FollowerRanking exact = new FollowerRanking(graph);
+        assertEquals(exact.topK(10), ranking.topK());
+        for (String user : exact.topK(10)) {
+            assertEquals(exact.followerCount(user), ranking.estimate(user));
+        }
+    }
+
+    @Test
+    public void testTightMemoryWithinBound() {
+        List<Tweet> tweets = corpus(20000, 2000);
+        ApproximateInfluencers ranking = new ApproximateInfluencers(8192, 5);
+        ranking.acceptAll(tweets);
+
+        FollowerRanking exact = new FollowerRanking(SocialNetwork.guessFollowsGraph(tweets));
+        assertEquals(5, ranking.topK().size());
+        for (String user : exact.topK(20)) {
+            assertTrue(user, ranking.estimate(user) <= exact.followerCount(user) + ranking.errorBound());
+        }
+        assertTrue(ranking.edgesCounted() <= exact.size() * (long) exact.size());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testTooLittleMemory() {
+        new ApproximateInfluencers(100, 5);
+    }
+
+    /*
+     * Tweets whose mentions follow a Zipf-like distribution over users.
+     */
+    private static List<Tweet> corpus(int size, int users) {
+        Random random = new Random(19);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int mentioned = (int) (users * Math.pow(random.nextDouble(), 4));
+            String text = "hello @U" + mentioned + " and @u" + random.nextInt(users);
+            tweets.add(new Tweet(i, "u" + random.nextInt(users), text, d1));
+        }
+        return tweets;
+    }
+}
@@ -0,0 +1,136 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class CompactFollowsGraphTest {
+
+    /**
+     * Testing Strategy - CompactFollowsGraph.fromGraph(...), asMap()
+     * - graph:       empty, key with empty set, followee that is never a key,
+     *                keys/followees in different case, self-follow
+     * - asMap():     equals the lowercase input graph, lookups of absent and
+     *                wrong-case usernames
+     * 
+     * Testing Strategy - CompactFollowsGraph.fromTweets(...)
+     * - asMap() equals SocialNetwork.guessFollowsGraph on the same tweets
+     * - with a dictionary: users are the whole dictionary, including names not
+     *   in the tweets; names added to the dictionary later are not users
+     * 
+     * Testing Strategy - id accessors
+     * - following/followers rows sorted, counts match, follows()
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        CompactFollowsGraph graph = CompactFollowsGraph.fromGraph(new HashMap<>());
+
+        assertEquals(0, graph.userCount());
+        assertTrue(graph.asMap().isEmpty());
+    }
+
+    @Test
+    public void testFromGraphAsMap() {
+        Map<String, Set<String>> input = new HashMap<>();
+        input.put("Ernie", set("BERT", "elmo", "ernie"));
+        input.put("elmo", set("bert"));
+        input.put("oscar", set());
+
+        CompactFollowsGraph graph = CompactFollowsGraph.fromGraph(input);
+        Map<String, Set<String>> view = graph.asMap();
+
+        Map<String, Set<String>> expected = new HashMap<>();
+        expected.put("ernie", set("bert", "elmo"));
+        expected.put("elmo", set("bert"));
+        expected.put("oscar", set());
+        assertEquals(expected, view);
+        assertEquals(expected.hashCode(), view.hashCode());
+        assertEquals(4, graph.userCount());
+        assertEquals(3, graph.edgeCount());
+        assertNull(view.get("bert"));
+        assertNull(view.get("ERNIE"));
+        assertFalse(view.get("ernie").contains("BERT"));
+        assertTrue(view.get("ernie").contains("bert"));
+    }
+
+    @Test
+    public void testIdAccessors() {
+        Map<String, Set<String>> input = new HashMap<>();
+        input.put("a", set("b", "c"));
+        input.put("b", set("c"));
+        CompactFollowsGraph graph = CompactFollowsGraph.fromGraph(input);
+        int a = graph.idOf("A");
+        int b = graph.idOf("b");
+        int c = graph.idOf("c");
+
+        assertEquals("a", graph.nameOf(a));
+        assertEquals(-1, graph.idOf("d"));
+        assertEquals(2, graph.followingCount(a));
+        assertEquals(2, graph.followerCount(c));
+        assertEquals(0, graph.followerCount(a));
+        assertTrue(graph.follows(a, b));
+        assertFalse(graph.follows(b, a));
+        int[] followersOfC = graph.followers(c);
+        assertEquals(2, followersOfC.length);
+        assertTrue(followersOfC[0] < followersOfC[1]);
+    }
+
+    @Test
+    public void testFromTweetsMatchesGuessFollowsGraph() {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(0, "aLYssA", "rivest?@bitch", d1),
+                new Tweet(1, "alyssa", "@BITCH and @cumin", d1),
+                new Tweet(2, "bitch", "email@cumin, @doggie @otherone", d1),
+                new Tweet(3, "cumin", "@cumin only myself", d1),
+                new Tweet(4, "DoGGIE", "@doggie @CUMIN @DOGGIE", d1));
+
+        CompactFollowsGraph graph = CompactFollowsGraph.fromTweets(tweets);
+
+        assertEquals(SocialNetwork.guessFollowsGraph(tweets), graph.asMap());
+        assertEquals(SocialNetwork.influencers(SocialNetwork.guessFollowsGraph(tweets)),
+                     SocialNetwork.influencers(graph.asMap()));
+    }
+
+    @Test
+    public void testFromTweetsWithDictionary() {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(0, "aLYssA", "@Ben", d1),
+                new Tweet(1, "ben", "@cy", d1));
+        UsernameDictionary dictionary = new UsernameDictionary();
+        int unrelated = dictionary.idOf("someone-else");
+
+        CompactFollowsGraph graph = CompactFollowsGraph.fromTweets(tweets, dictionary);
+
+        assertEquals(SocialNetwork.guessFollowsGraph(tweets), graph.asMap());
+        assertEquals(dictionary.size(), graph.userCount());
+        assertEquals(4, graph.userCount());
+        assertEquals(unrelated, graph.idOf("SOMEONE-ELSE"));
+        assertEquals(0, graph.followerCount(unrelated));
+        assertEquals(0, graph.followingCount(unrelated));
+        assertEquals(dictionary.find("ben"), graph.idOf("Ben"));
+
+        dictionary.idOf("latecomer");
+        assertEquals(-1, graph.idOf("latecomer"));
+        assertEquals(4, graph.userCount());
+    }
+
+    private static Set<String> set(String... users) {
+        return new HashSet<>(Arrays.asList(users));
+    }
+}
@@ -0,0 +1,97 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class FilterStreamTest {
+
+    /**
+     * Testing Strategy - Filter.streamWrittenBy(...), streamInTimespan(...), streamContaining(...)
+     * - list:          empty, ArrayList (RandomAccess), LinkedList
+     * - stream:        sequential, parallel (same order as eager method)
+     * - consumer:      collects all, limit(n) (stops reading early), iterator()
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        List<Tweet> none = new ArrayList<>();
+        assertEquals(0, Filter.streamWrittenBy(none, "alyssa").count());
+        assertEquals(0, Filter.streamContaining(none, Arrays.asList("talk")).count());
+        assertEquals(0, Filter.streamInTimespan(none, new Timespan(d1, d1)).count());
+    }
+
+    @Test
+    public void testMatchesEagerMethods() {
+        List<Tweet> tweets = corpus(10000);
+        Timespan span = new Timespan(d1.plusSeconds(1234), d1.plusSeconds(8765));
+        List<String> words = Arrays.asList("W3", "nothing");
+        for (List<Tweet> list : Arrays.asList(tweets, new LinkedList<>(tweets))) {
+            for (boolean parallel : new boolean[] { false, true }) {
+                assertEquals(Filter.writtenBy(list, "U1"),
+                             maybeParallel(Filter.streamWrittenBy(list, "U1"), parallel)
+                                 .collect(Collectors.toList()));
+                assertEquals(Filter.inTimespan(list, span),
+                             maybeParallel(Filter.streamInTimespan(list, span), parallel)
+                                 .collect(Collectors.toList()));
+                assertEquals(Filter.containing(list, words),
+                             maybeParallel(Filter.streamContaining(list, words), parallel)
+                                 .collect(Collectors.toList()));
+            }
+        }
+    }
+
+    @Test
+    public void testLimitStopsEarly() {
+        AtomicInteger reads = new AtomicInteger();
+        List<Tweet> tweets = new ArrayList<Tweet>(corpus(10000)) {
+            private static final long serialVersionUID = 1L;
+            @Override public Tweet get(int index) {
+                reads.incrementAndGet();
+                return super.get(index);
+            }
+        };
+        List<Tweet> page = Filter.streamWrittenBy(tweets, "u1").limit(20).collect(Collectors.toList());
+        assertEquals(Filter.writtenBy(corpus(10000), "u1").subList(0, 20), page);
+        assertTrue("read " + reads.get(), reads.get() <= 100);
+        assertTrue(Filter.streamContaining(tweets, Arrays.asList("w3")).iterator().hasNext());
+    }
+
+    @Test
+    public void testSplitsEvenly() {
+        TweetSpliterator whole = new TweetSpliterator(corpus(10000), t -> true, 0, 10000);
+        Spliterator<Tweet> prefix = whole.trySplit();
+        assertEquals(5000, prefix.estimateSize());
+        assertEquals(5000, whole.estimateSize());
+        assertNull(new TweetSpliterator(corpus(100), t -> true, 0, 100).trySplit());
+    }
+
+    private static Stream<Tweet> maybeParallel(Stream<Tweet> s, boolean parallel) {
+        return parallel ? s.parallel() : s;
+    }
+
+    private static List<Tweet> corpus(int size) {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            tweets.add(new Tweet(i, "u" + (i % 5), "w" + (i % 7) + " text", d1.plusSeconds(i)));
+        }
+        return tweets;
+    }
+}
@@ -0,0 +1,125 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class FollowerRankingTest {
+
+    /**
+     * Testing Strategy - FollowerRanking.ranked()
+     * - graph:         empty, users only as keys, users only as followees
+     * - ties:          no ties, ties broken alphabetically
+     * - case:          same user as key in different case, same followee in different case
+     * - self-follow:   present (not counted)
+     * 
+     * Testing Strategy - FollowerRanking.topK(...)
+     * - k:             0, < size, == size, > size
+     * - order:         before ranked() has been called, after
+     * 
+     * Testing Strategy - FollowerRanking.followerCount(...)
+     * - username:      in graph with followers, in graph without followers, not in graph,
+     *                  in different case
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testRankedEmpty() {
+        FollowerRanking ranking = new FollowerRanking(new HashMap<>());
+
+        assertEquals(0, ranking.size());
+        assertTrue(ranking.ranked().isEmpty());
+        assertTrue(ranking.topK(3).isEmpty());
+    }
+
+    @Test
+    public void testRankedTiesAndZeroFollowers() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        graph.put("a", set("b"));
+        graph.put("b", set("a"));
+        graph.put("c", set("b", "a"));
+        graph.put("d", set("a"));
+        graph.put("q", set("b", "c"));
+        graph.put("z", set());
+
+        FollowerRanking ranking = new FollowerRanking(graph);
+
+        assertEquals(Arrays.asList("a", "b", "c", "d", "q", "z"), ranking.ranked());
+        assertEquals(3, ranking.followerCount("A"));
+        assertEquals(1, ranking.followerCount("c"));
+        assertEquals(0, ranking.followerCount("z"));
+        assertEquals(0, ranking.followerCount("nobody"));
+    }
+
+    @Test
+    public void testRankedMergesCase() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        graph.put("Ernie", set("BERT", "bert", "elmo"));
+        graph.put("ernie", set("Bert", "ernie"));
+        graph.put("elmo", set("bert"));
+
+        FollowerRanking ranking = new FollowerRanking(graph);
+
+        assertEquals(Arrays.asList("bert", "elmo", "ernie"), ranking.ranked());
+        assertEquals(2, ranking.followerCount("bert"));
+        assertEquals(1, ranking.followerCount("elmo"));
+        assertEquals(0, ranking.followerCount("ernie"));
+    }
+
+    @Test
+    public void testTopK() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        for (int i = 0; i < 50; i++) {
+            Set<String> followed = new HashSet<>();
+            for (int j = 0; j < i; j++) {
+                followed.add("u" + j);
+            }
+            graph.put("u" + i, followed);
+        }
+        FollowerRanking fresh = new FollowerRanking(graph);
+        List<String> top7 = fresh.topK(7);
+        FollowerRanking ranking = new FollowerRanking(graph);
+        List<String> all = ranking.ranked();
+
+        assertEquals(50, all.size());
+        assertEquals("u0", all.get(0));
+        assertEquals(Collections.emptyList(), ranking.topK(0));
+        assertEquals(all.subList(0, 7), ranking.topK(7));
+        assertEquals(all.subList(0, 7), top7);
+        assertEquals(all, fresh.ranked());
+        assertEquals(all, ranking.topK(50));
+        assertEquals(all, ranking.topK(500));
+    }
+
+    @Test
+    public void testRankedManyUsers() {
+        // enough users to grow the intern table several times while ranking
+        Map<String, Set<String>> graph = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            graph.put("user" + i, set("user" + ((i + 1) % 100), "celebrity"));
+        }
+        List<String> ranked = SocialNetwork.influencers(graph);
+
+        assertEquals(101, ranked.size());
+        assertEquals("celebrity", ranked.get(0));
+        assertEquals(new HashSet<>(ranked).size(), ranked.size());
+        assertEquals(100, new FollowerRanking(graph).followerCount("CELEBRITY"));
+        assertEquals(1, new FollowerRanking(graph).followerCount("user42"));
+    }
+
+    private static Set<String> set(String... users) {
+        return new HashSet<>(Arrays.asList(users));
+    }
+}
@@ -0,0 +1,91 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class FollowsGraphBuilderTest {
+
+    /**
+     * Testing Strategy - FollowsGraphBuilder
+     * - tweets accepted:   none, some, all; snapshot after each prefix equals guessFollowsGraph
+     * - mentions:          none, only self-mentions, same user in different case, new user
+     *                      for an author already in the graph
+     * - snapshots:         unchanged by later accepts, unmodifiable
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final Tweet tweet0 = new Tweet(0, "aLYssA", "talk about rivest?@bitch", d1);
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "talk about @BITCH and @cumin", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bitch", "email@cumin, @doggie @otherone #hype", d1);
+    private static final Tweet tweet3 = new Tweet(3, "cumin", "@cumin my time at portia", d1);
+    private static final Tweet tweet4 = new Tweet(4, "DoGGIE", "@doggie @CUMIN @DOGGIE baby", d1);
+    private static final Tweet tweet5 = new Tweet(5, "ESCA-late", "not fully socialized", d1);
+
+    private static final List<Tweet> all = Arrays.asList(tweet0, tweet1, tweet2, tweet3, tweet4, tweet5);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        FollowsGraphBuilder builder = new FollowsGraphBuilder();
+
+        assertTrue(builder.snapshot().isEmpty());
+        assertEquals(0, builder.tweetsSeen());
+    }
+
+    @Test
+    public void testEveryPrefixMatchesGuessFollowsGraph() {
+        FollowsGraphBuilder builder = new FollowsGraphBuilder();
+        for (int i = 0; i < all.size(); i++) {
+            builder.accept(all.get(i));
+            assertEquals(SocialNetwork.guessFollowsGraph(all.subList(0, i + 1)), builder.snapshot());
+        }
+        assertEquals(all.size(), builder.tweetsSeen());
+    }
+
+    @Test
+    public void testSnapshotContents() {
+        FollowsGraphBuilder builder = new FollowsGraphBuilder();
+        builder.acceptAll(all);
+
+        Map<String, Set<String>> expected = new HashMap<>();
+        expected.put("alyssa", new HashSet<>(Arrays.asList("bitch", "cumin")));
+        expected.put("bitch", new HashSet<>(Arrays.asList("doggie", "otherone")));
+        expected.put("doggie", new HashSet<>(Arrays.asList("cumin")));
+        assertEquals(expected, builder.snapshot());
+    }
+
+    @Test
+    public void testSnapshotUnchangedByLaterTweets() {
+        FollowsGraphBuilder builder = new FollowsGraphBuilder();
+        builder.accept(tweet0);
+        Map<String, Set<String>> before = builder.snapshot();
+        builder.accept(tweet1);
+        builder.accept(tweet2);
+        Map<String, Set<String>> after = builder.snapshot();
+
+        assertEquals(1, before.size());
+        assertEquals(new HashSet<>(Arrays.asList("bitch")), before.get("alyssa"));
+        assertEquals(new HashSet<>(Arrays.asList("bitch", "cumin")), after.get("alyssa"));
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testSnapshotUnmodifiable() {
+        FollowsGraphBuilder builder = new FollowsGraphBuilder();
+        builder.accept(tweet0);
+        builder.snapshot().get("alyssa").add("rivest");
+    }
+}
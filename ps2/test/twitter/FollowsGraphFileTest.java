@@ -0,0 +1,108 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class FollowsGraphFileTest {
+
+    /**
+     * Testing Strategy - FollowsGraphFile.write(...), read(...)
+     * - graph:     empty, key with empty set, followee never a key, mixed case,
+     *              non-ASCII usernames, thousands of users (multi-byte varints)
+     * - file:      intact, one byte flipped (checksum), truncated, not a snapshot
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        assertRoundTrip(new HashMap<>());
+    }
+
+    @Test
+    public void testSmall() throws IOException {
+        Map<String, Set<String>> graph = new HashMap<>();
+        graph.put("Ernie", set("bert", "ELMO"));
+        graph.put("bert", set("ernie"));
+        graph.put("oscar", set());
+        graph.put("z\u00e9", set("bert"));
+
+        assertRoundTrip(graph);
+    }
+
+    @Test
+    public void testLarge() throws IOException {
+        Random random = new Random(12);
+        Map<String, Set<String>> graph = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            Set<String> followees = new HashSet<>();
+            for (int j = random.nextInt(20); j > 0; j--) {
+                followees.add("u" + random.nextInt(20000));
+            }
+            graph.put("u" + random.nextInt(20000), followees);
+        }
+
+        assertRoundTrip(graph);
+    }
+
+    @Test
+    public void testCorruptedByteFailsChecksum() throws IOException {
+        Map<String, Set<String>> graph = new HashMap<>();
+        graph.put("ernie", set("bert"));
+        Path file = Files.createTempFile("graph", ".fgs");
+        try {
+            FollowsGraphFile.write(file, graph);
+            byte[] bytes = Files.readAllBytes(file);
+            bytes[6] ^= 1;
+            Files.write(file, bytes);
+            assertReadFails(file);
+
+            FollowsGraphFile.write(file, graph);
+            bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+            assertReadFails(file);
+
+            Files.write(file, "not a graph".getBytes("UTF-8"));
+            assertReadFails(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void assertReadFails(Path file) {
+        try {
+            FollowsGraphFile.read(file);
+            fail("expected IOException");
+        } catch (IOException expected) {
+            // ok
+        }
+    }
+
+    private static void assertRoundTrip(Map<String, Set<String>> graph) throws IOException {
+        Path file = Files.createTempFile("graph", ".fgs");
+        try {
+            FollowsGraphFile.write(file, graph);
+            assertEquals(graph, FollowsGraphFile.read(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static Set<String> set(String... users) {
+        return new HashSet<>(Arrays.asList(users));
+    }
+}
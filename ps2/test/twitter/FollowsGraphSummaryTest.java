@@ -0,0 +1,230 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class FollowsGraphSummaryTest {
+
+    /**
+     * Testing Strategy - FollowsGraphSummary.of(...), fromTweets(...)
+     * - graph:         empty, key with no followees, self-follow (dropped),
+     *                  same user in different case
+     * 
+     * Testing Strategy - FollowsGraphSummary.merge(...)
+     * - sides:         empty with nonempty, disjoint users, shared users and shared edges
+     * - laws:          commutative, associative, empty() is identity
+     * - sharding:      shard summaries merged in any order equal the summary of all tweets
+     * 
+     * Testing Strategy - FollowsGraphSummary.writeTo(...), readFrom(...)
+     * - summary:       empty, nonempty, two on one stream
+     * - stream:        truncated, corrupted (checksum), pipe between threads,
+     *                  huge user count or name length (IOException, not OutOfMemoryError)
+     * 
+     * Testing Strategy - FollowsGraphSummary.influencers(), followerCount(...)
+     * - agrees with SocialNetwork.influencers; username in different case, absent,
+     *   looked up under a Turkish default locale
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testOf() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        graph.put("Alyssa", set("ben", "ALYSSA"));
+        graph.put("carol", set());
+        graph.put("ben", set("Alyssa"));
+        FollowsGraphSummary summary = FollowsGraphSummary.of(graph);
+
+        assertEquals(3, summary.userCount());
+        assertEquals(2, summary.edgeCount());
+        assertEquals(1, summary.followerCount("ALYSSA"));
+        assertEquals(0, summary.followerCount("nobody"));
+        Map<String, Set<String>> expected = new HashMap<>();
+        expected.put("alyssa", set("ben"));
+        expected.put("ben", set("alyssa"));
+        assertEquals(expected, summary.asMap());
+        assertEquals(SocialNetwork.influencers(graph), summary.influencers());
+    }
+
+    @Test
+    public void testFollowerCountTurkishLocale() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        graph.put("ben", set("MIT_Ida"));
+        FollowsGraphSummary summary = FollowsGraphSummary.of(graph);
+        Locale saved = Locale.getDefault();
+        try {
+            Locale.setDefault(new Locale("tr", "TR"));
+            assertEquals(1, summary.followerCount("MIT_IDA"));
+        } finally {
+            Locale.setDefault(saved);
+        }
+    }
+
+    @Test
+    public void testMergeLaws() {
+        FollowsGraphSummary a = FollowsGraphSummary.fromTweets(corpus(0, 300));
+        FollowsGraphSummary b = FollowsGraphSummary.fromTweets(corpus(300, 700));
+        FollowsGraphSummary c = FollowsGraphSummary.fromTweets(corpus(700, 1000));
+        FollowsGraphSummary empty = FollowsGraphSummary.empty();
+
+        assertEquals(a, a.merge(empty));
+        assertEquals(a, empty.merge(a));
+        assertEquals(a, a.merge(a));
+        assertEquals(a.merge(b), b.merge(a));
+        assertEquals(a.merge(b).merge(c), a.merge(b.merge(c)));
+        assertEquals(FollowsGraphSummary.fromTweets(corpus(0, 1000)), c.merge(a).merge(b));
+    }
+
+    @Test
+    public void testMergeDisjoint() {
+        Map<String, Set<String>> left = new HashMap<>();
+        left.put("a", set("b"));
+        Map<String, Set<String>> right = new HashMap<>();
+        right.put("c", set("d"));
+        right.put("b", set("A"));
+        FollowsGraphSummary merged = FollowsGraphSummary.of(left).merge(FollowsGraphSummary.of(right));
+
+        Map<String, Set<String>> expected = new HashMap<>();
+        expected.put("a", set("b"));
+        expected.put("b", set("a"));
+        expected.put("c", set("d"));
+        assertEquals(expected, merged.asMap());
+        assertEquals(Arrays.asList("a", "b", "d", "c"), merged.influencers());
+    }
+
+    @Test
+    public void testWireRoundTrip() throws IOException {
+        FollowsGraphSummary summary = FollowsGraphSummary.fromTweets(corpus(0, 500));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        summary.writeTo(out);
+        FollowsGraphSummary.empty().writeTo(out);
+        InputStream in = new ByteArrayInputStream(out.toByteArray());
+        assertEquals(summary, FollowsGraphSummary.readFrom(in));
+        assertEquals(FollowsGraphSummary.empty(), FollowsGraphSummary.readFrom(in));
+        assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void testWireCorrupted() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FollowsGraphSummary.fromTweets(corpus(0, 50)).writeTo(out);
+        byte[] bytes = out.toByteArray();
+
+        byte[] flipped = bytes.clone();
+        flipped[flipped.length / 2] ^= 0x01;
+        try {
+            FollowsGraphSummary.readFrom(new ByteArrayInputStream(flipped));
+            fail("expected IOException");
+        } catch (IOException e) {
+            // expected
+        }
+        try {
+            FollowsGraphSummary.readFrom(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 1)));
+            fail("expected IOException");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testWireHugeLengths() {
+        byte[] maxVarint = { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07 };
+        byte[] magic = { 'F', 'G', 'M', '1' };
+        ByteArrayOutputStream manyUsers = new ByteArrayOutputStream();
+        manyUsers.write(magic, 0, 4);
+        manyUsers.write(maxVarint, 0, maxVarint.length);
+        manyUsers.write(1);
+        manyUsers.write('a');
+        ByteArrayOutputStream longName = new ByteArrayOutputStream();
+        longName.write(magic, 0, 4);
+        longName.write(1);
+        longName.write(maxVarint, 0, maxVarint.length);
+        longName.write('a');
+        for (ByteArrayOutputStream bad : Arrays.asList(manyUsers, longName)) {
+            try {
+                FollowsGraphSummary.readFrom(new ByteArrayInputStream(bad.toByteArray()));
+                fail("expected IOException");
+            } catch (IOException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testShardsAsThreads() throws Exception {
+        List<Tweet> tweets = corpus(0, 4000);
+        final int shards = 4;
+        List<PipedInputStream> wires = new ArrayList<>();
+        List<Thread> workers = new ArrayList<>();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        for (int s = 0; s < shards; s++) {
+            final List<Tweet> shard = tweets.subList(s * 1000, (s + 1) * 1000);
+            final PipedOutputStream out = new PipedOutputStream();
+            wires.add(new PipedInputStream(out, 1 << 16));
+            Thread worker = new Thread(() -> {
+                try (PipedOutputStream o = out) {
+                    FollowsGraphSummary.fromTweets(shard).writeTo(o);
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+
+        // coordinator: read the shards in reverse order and merge
+        FollowsGraphSummary merged = FollowsGraphSummary.empty();
+        for (int s = shards - 1; s >= 0; s--) {
+            merged = merged.merge(FollowsGraphSummary.readFrom(wires.get(s)));
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(Collections.emptyList(), failures);
+
+        Map<String, Set<String>> graph = SocialNetwork.guessFollowsGraph(tweets);
+        assertEquals(graph, merged.asMap());
+        assertEquals(SocialNetwork.influencers(graph), merged.influencers());
+    }
+
+    private static List<Tweet> corpus(int from, int to) {
+        Random random = new Random(20);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < to; i++) {
+            String text = "@U" + random.nextInt(60) + " hi @u" + random.nextInt(60);
+            Tweet t = new Tweet(i, "u" + random.nextInt(60), text, d1);
+            if (i >= from) {
+                tweets.add(t);
+            }
+        }
+        return tweets;
+    }
+
+    private static Set<String> set(String... users) {
+        return new HashSet<>(Arrays.asList(users));
+    }
+}
@@ -0,0 +1,134 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class InfluenceRankTest {
+
+    /**
+     * Testing Strategy - InfluenceRank.compute(...)
+     * - graph:         empty, one user, cycle (uniform scores), star, dangling users,
+     *                  large enough to fork
+     * - parameters:    defaults, iteration cap reached, invalid
+     * - pool:          1 thread, several threads (same scores)
+     * 
+     * Testing Strategy - InfluenceRank.ranked(), topK(...), score(...)
+     * - ties:          broken alphabetically
+     * - k:             0, < size (equals a prefix of ranked()), > size
+     * - follower quality: follower with high score beats more followers with low scores
+     * - username:      in graph, not in graph, different case
+     * 
+     * Testing Strategy - SocialNetwork.influencersByRank(...)
+     * - same users as influencers(...)
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        InfluenceRank rank = InfluenceRank.compute(CompactFollowsGraph.fromGraph(new HashMap<>()));
+        assertEquals(0, rank.size());
+        assertTrue(rank.converged());
+        assertEquals(Collections.emptyList(), rank.ranked());
+        assertEquals(0, rank.score("alyssa"), 0);
+    }
+
+    @Test
+    public void testCycleIsUniform() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        graph.put("c", set("a"));
+        graph.put("a", set("b"));
+        graph.put("b", set("C"));
+        InfluenceRank rank = InfluenceRank.compute(CompactFollowsGraph.fromGraph(graph));
+        assertTrue(rank.converged());
+        assertEquals(Arrays.asList("a", "b", "c"), rank.ranked());
+        assertEquals(Arrays.asList("a", "b"), rank.topK(2));
+        assertEquals(rank.ranked(), rank.topK(10));
+        assertEquals(Arrays.asList(), rank.topK(0));
+        assertEquals(1.0 / 3, rank.score("C"), 1e-9);
+    }
+
+    @Test
+    public void testFollowerQuality() {
+        // hub is followed by four users; star is followed only by hub,
+        // who follows no one else, so star inherits most of hub's score
+        Map<String, Set<String>> graph = new HashMap<>();
+        for (String u : Arrays.asList("f1", "f2", "f3", "f4")) {
+            graph.put(u, set("hub"));
+        }
+        graph.put("hub", set("star"));
+        graph.put("nobody1", set("minor"));
+        graph.put("nobody2", set("minor"));
+
+        InfluenceRank rank = InfluenceRank.compute(CompactFollowsGraph.fromGraph(graph));
+        assertTrue(rank.converged());
+        assertEquals(Arrays.asList("star", "hub", "minor"), rank.topK(3));
+        assertTrue(rank.score("minor") > rank.score("f1"));
+
+        double total = 0;
+        for (String u : rank.ranked()) {
+            total += rank.score(u);
+        }
+        assertEquals(1, total, 1e-9);
+        assertEquals(new HashSet<>(SocialNetwork.influencers(graph)),
+                     new HashSet<>(SocialNetwork.influencersByRank(graph)));
+    }
+
+    @Test
+    public void testIterationCap() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        graph.put("a", set("b"));
+        InfluenceRank rank = InfluenceRank.compute(CompactFollowsGraph.fromGraph(graph), 0.85, 0, 1,
+                                                   ForkJoinPool.commonPool());
+        assertEquals(1, rank.iterations());
+        assertFalse(rank.converged());
+    }
+
+    @Test
+    public void testParallelMatchesSerial() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            graph.put("u" + i, set("u" + (i * 7 % 20000), "u" + (i / 3), "u" + (i * i % 101)));
+        }
+        CompactFollowsGraph compact = CompactFollowsGraph.fromGraph(graph);
+        ForkJoinPool one = new ForkJoinPool(1);
+        ForkJoinPool four = new ForkJoinPool(4);
+        try {
+            InfluenceRank serial = InfluenceRank.compute(compact, 0.85, 1e-12, 200, one);
+            InfluenceRank parallel = InfluenceRank.compute(compact, 0.85, 1e-12, 200, four);
+            assertTrue(serial.converged());
+            List<String> top = serial.topK(50);
+            assertEquals(top, parallel.topK(50));
+            assertEquals(serial.ranked().subList(0, 50), top);
+            for (String u : top) {
+                assertEquals(serial.score(u), parallel.score(u), 1e-12);
+            }
+        } finally {
+            one.shutdown();
+            four.shutdown();
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testBadDamping() {
+        InfluenceRank.compute(CompactFollowsGraph.fromGraph(new HashMap<>()), 1.0, 0, 10,
+                              ForkJoinPool.commonPool());
+    }
+
+    private static Set<String> set(String... users) {
+        return new HashSet<>(Arrays.asList(users));
+    }
+}
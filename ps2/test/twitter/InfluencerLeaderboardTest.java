@@ -0,0 +1,142 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class InfluencerLeaderboardTest {
+
+    /**
+     * Testing Strategy - InfluencerLeaderboard.accept(...), advanceTo(...)
+     * - window:        tweet inside, tweet expired, edge repeated in a later bucket
+     *                  (kept until its last bucket expires), edge repeated in one bucket
+     * - mentions:      none, self-mention, different case
+     * - time:          same bucket, later bucket, earlier bucket (rejected)
+     * - users:         a few users throughout, many users that each expire
+     *                  (numbering stays bounded)
+     * 
+     * Testing Strategy - InfluencerLeaderboard.topK(...), followerCount(...), size()
+     * - k:             0, < size, > size
+     * - _              agrees with FollowerRanking over the tweets in the window
+     */
+
+    private static final Instant d0 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Duration MINUTE = Duration.ofMinutes(1);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        InfluencerLeaderboard board = new InfluencerLeaderboard(Duration.ofMinutes(15), MINUTE);
+        assertEquals(0, board.size());
+        assertEquals(Collections.emptyList(), board.topK(3));
+        assertEquals(0, board.followerCount("bbitdiddle"));
+    }
+
+    @Test
+    public void testSlidingWindow() {
+        InfluencerLeaderboard board = new InfluencerLeaderboard(Duration.ofMinutes(10), MINUTE);
+        board.accept(new Tweet(1, "alyssa", "hi @BBitdiddle and @alyssa", d0));
+        board.accept(new Tweet(2, "ben", "@bbitdiddle @Alyssa @alyssa", d0.plusSeconds(30)));
+        board.accept(new Tweet(3, "carol", "no mentions", d0.plusSeconds(40)));
+
+        assertEquals(Arrays.asList("bbitdiddle", "alyssa"), board.topK(5));
+        assertEquals(Arrays.asList("bbitdiddle"), board.topK(1));
+        assertEquals(Collections.emptyList(), board.topK(0));
+        assertEquals(2, board.followerCount("BBITDIDDLE"));
+
+        // alyssa -> bbitdiddle seen again, keeping that edge alive longer
+        board.accept(new Tweet(4, "alyssa", "@bbitdiddle again", d0.plus(Duration.ofMinutes(5))));
+        board.advanceTo(d0.plus(Duration.ofMinutes(10)));
+        assertEquals(Arrays.asList("bbitdiddle"), board.topK(5));
+        assertEquals(1, board.followerCount("bbitdiddle"));
+        assertEquals(0, board.followerCount("alyssa"));
+
+        board.advanceTo(d0.plus(Duration.ofMinutes(15)));
+        assertEquals(0, board.size());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testTimeGoesBackwards() {
+        InfluencerLeaderboard board = new InfluencerLeaderboard(Duration.ofMinutes(10), MINUTE);
+        board.accept(new Tweet(1, "alyssa", "@ben", d0.plus(Duration.ofMinutes(5))));
+        board.accept(new Tweet(2, "alyssa", "@ben", d0));
+    }
+
+    @Test
+    public void testAgreesWithFollowerRanking() {
+        Random random = new Random(17);
+        InfluencerLeaderboard board = new InfluencerLeaderboard(Duration.ofMinutes(5), MINUTE);
+        List<Tweet> seen = new ArrayList<>();
+        Instant now = d0;
+        for (int i = 0; i < 400; i++) {
+            now = now.plusSeconds(random.nextInt(20));
+            String text = "@u" + random.nextInt(12) + " and @U" + random.nextInt(12);
+            Tweet tweet = new Tweet(i, "u" + random.nextInt(12), text, now);
+            board.accept(tweet);
+            seen.add(tweet);
+
+            long current = now.toEpochMilli() / MINUTE.toMillis();
+            List<Tweet> window = new ArrayList<>();
+            for (Tweet t : seen) {
+                if (t.getTimestamp().toEpochMilli() / MINUTE.toMillis() > current - 5) {
+                    window.add(t);
+                }
+            }
+            FollowerRanking expected = new FollowerRanking(SocialNetwork.guessFollowsGraph(window));
+            List<String> ranked = new ArrayList<>();
+            for (String user : expected.ranked()) {
+                if (expected.followerCount(user) > 0) {
+                    ranked.add(user);
+                }
+            }
+            assertEquals(ranked, board.topK(Integer.MAX_VALUE));
+        }
+    }
+
+    @Test
+    public void testForgetsExpiredUsers() {
+        Random random = new Random(19);
+        InfluencerLeaderboard board = new InfluencerLeaderboard(Duration.ofMinutes(2), MINUTE);
+        List<Tweet> seen = new ArrayList<>();
+        Instant now = d0;
+        for (int i = 0; i < 3000; i++) {
+            // every 100 tweets, a fresh crowd of 50 users takes over
+            now = now.plusSeconds(6);
+            int generation = i / 100 * 50;
+            String text = "@u" + (generation + random.nextInt(50)) + " @u" + (generation + random.nextInt(50));
+            Tweet tweet = new Tweet(i, "U" + (generation + random.nextInt(50)), text, now);
+            board.accept(tweet);
+            seen.add(tweet);
+            assertTrue("numbered " + board.numberedUsers(), board.numberedUsers() <= 400);
+        }
+
+        long current = now.toEpochMilli() / MINUTE.toMillis();
+        List<Tweet> window = new ArrayList<>();
+        for (Tweet t : seen) {
+            if (t.getTimestamp().toEpochMilli() / MINUTE.toMillis() > current - 2) {
+                window.add(t);
+            }
+        }
+        FollowerRanking expected = new FollowerRanking(SocialNetwork.guessFollowsGraph(window));
+        List<String> ranked = new ArrayList<>();
+        for (String user : expected.ranked()) {
+            if (expected.followerCount(user) > 0) {
+                ranked.add(user);
+            }
+        }
+        assertEquals(ranked, board.topK(Integer.MAX_VALUE));
+        assertEquals(0, board.followerCount("u0"));
+    }
+}
@@ -0,0 +1,91 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class KeywordMatcherTest {
+
+    /**
+     * Testing Strategy - KeywordMatcher.matches(...)
+     * - keyword position:  first word, middle word, last word, only word
+     * - boundaries:        keyword inside a longer word (no match), words separated
+     *                      by several spaces and by "/n", punctuation attached
+     * - case:              keyword and text in different case
+     * - characters:        ASCII, non-ASCII
+     * - word list size:    empty, 1, 50k
+     * 
+     * Testing Strategy - KeywordMatcher.containing(...)
+     * - result equals Filter.containing, and the matcher can be reused
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmptyWordList() {
+        KeywordMatcher matcher = new KeywordMatcher(new ArrayList<>());
+
+        assertFalse(matcher.matches("anything at all"));
+        assertFalse(matcher.matches(""));
+    }
+
+    @Test
+    public void testWholeWordsOnly() {
+        KeywordMatcher matcher = new KeywordMatcher(Arrays.asList("Rivest", "talk"));
+
+        assertTrue(matcher.matches("rivest"));
+        assertTrue(matcher.matches("RIVEST talks"));
+        assertTrue(matcher.matches("a  TALK"));
+        assertTrue(matcher.matches("x/ntalk/ny"));
+        assertFalse(matcher.matches("rivesting talks"));
+        assertFalse(matcher.matches("rivest, talk."));
+        assertFalse(matcher.matches("prerivest"));
+    }
+
+    @Test
+    public void testNonAscii() {
+        KeywordMatcher matcher = new KeywordMatcher(Arrays.asList("CAF\u00c9", "\u00fcber"));
+
+        assertTrue(matcher.matches("le caf\u00e9"));
+        assertTrue(matcher.matches("\u00dcBER alles"));
+        assertFalse(matcher.matches("cafe uber"));
+    }
+
+    @Test
+    public void testLargeWordList() {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 50000; i++) {
+            words.add("Bad" + i);
+        }
+        KeywordMatcher matcher = new KeywordMatcher(words);
+
+        assertTrue(matcher.matches("this is bad49999"));
+        assertTrue(matcher.matches("BAD0"));
+        assertFalse(matcher.matches("bad50000 bad"));
+    }
+
+    @Test
+    public void testContainingMatchesFilter() {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "a", "is it reasonable to talk about rivest so much?", d1),
+                new Tweet(2, "b", "rivest talk in 30 minutes #hype", d1),
+                new Tweet(3, "c", "#HYPE/nrivesting", d1),
+                new Tweet(4, "d", "nothing here", d1));
+        List<String> words = Arrays.asList("#hype", "Much?");
+        KeywordMatcher matcher = new KeywordMatcher(words);
+
+        assertEquals(Arrays.asList(tweets.get(0), tweets.get(1), tweets.get(2)), matcher.containing(tweets));
+        assertEquals(Filter.containing(tweets, words), Filter.containing(tweets, matcher));
+        assertEquals(matcher.containing(tweets), matcher.containing(tweets));
+    }
+}
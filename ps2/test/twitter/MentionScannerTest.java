@@ -0,0 +1,115 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Test;
+
+public class MentionScannerTest {
+
+    /**
+     * Testing Strategy - MentionScanner.scan(...)
+     * - number of mentions:       0, 1, >1
+     * - position of mention:      start of text, middle, end of text
+     * - boundary:                 preceded by valid username char (not a mention),
+     *                             preceded by invalid char, '@' as last char, "@@"
+     * - case:                     same name in different case yields the same instance
+     * 
+     * Testing Strategy - MentionScanner.scanHashes(...)
+     * - same mentions as scan(), as ranges; hash equals that of the folded name
+     * 
+     * Testing Strategy - MentionScanner.intern(...)
+     * - username seen before as a mention, not seen before
+     * - many distinct usernames (interning table grows)
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testScanNoMention() {
+        List<String> found = new ArrayList<>();
+        int n = new MentionScanner().scan("no mention here, bitdiddle@mit.edu @", found);
+
+        assertEquals(0, n);
+        assertTrue(found.isEmpty());
+    }
+
+    @Test
+    public void testScanStartMiddleEnd() {
+        List<String> found = new ArrayList<>();
+        int n = new MentionScanner().scan("@Alyssa talk to @ben_b, then @cy-D", found);
+
+        assertEquals(3, n);
+        assertEquals(Arrays.asList("alyssa", "ben_b", "cy-d"), found);
+    }
+
+    @Test
+    public void testScanBoundaries() {
+        List<String> found = new ArrayList<>();
+        new MentionScanner().scan("Iam@@hometoday, visit#@ME, #@#, me@you @@x", found);
+
+        assertEquals(Arrays.asList("hometoday", "me", "x"), found);
+    }
+
+    @Test
+    public void testScanHashesMatchesScan() {
+        String text = "Iam@@HomeToday, visit#@ME, #@#, me@you @@x @Me";
+        List<String> expected = new ArrayList<>();
+        new MentionScanner().scan(text, expected);
+        List<String> found = new ArrayList<>();
+        int count = MentionScanner.scanHashes(text, (chars, start, end, hash) -> {
+            String name = chars.substring(start, end).toLowerCase(Locale.ROOT);
+            assertEquals(BloomFilter.hash(name), hash);
+            found.add(name);
+        });
+
+        assertEquals(expected, found);
+        assertEquals(4, count);
+    }
+
+    @Test
+    public void testScanInternsAcrossCase() {
+        MentionScanner scanner = new MentionScanner();
+        List<String> found = new ArrayList<>();
+        scanner.scan("@ALYSSA", found);
+        scanner.scan("hi @alyssa and @AlYsSa", found);
+
+        assertEquals(3, found.size());
+        assertSame(found.get(0), found.get(1));
+        assertSame(found.get(0), found.get(2));
+        assertEquals(1, scanner.distinctNames());
+    }
+
+    @Test
+    public void testIntern() {
+        MentionScanner scanner = new MentionScanner();
+        List<String> found = new ArrayList<>();
+        scanner.scan("@Bert", found);
+
+        assertSame(found.get(0), scanner.intern("BERT"));
+        assertEquals("ernie", scanner.intern("Ernie"));
+        assertEquals(2, scanner.distinctNames());
+    }
+
+    @Test
+    public void testInternManyNames() {
+        MentionScanner scanner = new MentionScanner();
+        List<String> found = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            scanner.scan("@User" + i, found);
+        }
+
+        assertEquals(1000, scanner.distinctNames());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("user" + i, found.get(i));
+            assertSame(found.get(i), scanner.intern("USER" + i));
+        }
+    }
+}
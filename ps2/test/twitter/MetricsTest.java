@@ -0,0 +1,172 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class MetricsTest {
+
+    /**
+     * Testing Strategy - Metrics recording
+     * - state:         disabled (nothing recorded), enabled, disabled again
+     * - operations:    each instrumented operation; empty list, nonempty list
+     * - counters:      calls, tweets scanned, results
+     * 
+     * Testing Strategy - LatencyHistogram
+     * - values:        none, small (exact), large (within 3%), quantiles 0, 0.5, 1
+     * 
+     * Testing Strategy - Metrics export
+     * - export() string, exportTo(file), serve() over HTTP
+     * - format:        each family contiguous after its TYPE line; summary sum and count
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much? @ben", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype @alyssa @Ben", d2);
+    private static final List<Tweet> tweets = Arrays.asList(tweet1, tweet2);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testRecording() {
+        try {
+            Metrics.disable();
+            Metrics.reset();
+            Filter.writtenBy(tweets, "alyssa");
+            assertEquals(0, Metrics.calls(Metrics.Op.WRITTEN_BY));
+
+            Metrics.enable();
+            assertTrue(Metrics.isEnabled());
+            Extract.getTimespan(tweets);
+            Extract.getMentionedUsers(tweets);
+            Filter.writtenBy(tweets, "ALYSSA");
+            Filter.writtenBy(Arrays.asList(), "alyssa");
+            Filter.inTimespan(tweets, new Timespan(d1, d1));
+            Filter.containing(tweets, Arrays.asList("talk"));
+            SocialNetwork.influencers(SocialNetwork.guessFollowsGraph(tweets));
+
+            assertEquals(1, Metrics.calls(Metrics.Op.GET_TIMESPAN));
+            assertEquals(3, Metrics.results(Metrics.Op.GET_MENTIONED_USERS));
+            assertEquals(2, Metrics.calls(Metrics.Op.WRITTEN_BY));
+            assertEquals(2, Metrics.tweetsScanned(Metrics.Op.WRITTEN_BY));
+            assertEquals(1, Metrics.results(Metrics.Op.WRITTEN_BY));
+            assertEquals(1, Metrics.results(Metrics.Op.IN_TIMESPAN));
+            assertEquals(2, Metrics.results(Metrics.Op.CONTAINING));
+            assertEquals(2, Metrics.results(Metrics.Op.GUESS_FOLLOWS_GRAPH));
+            assertEquals(3, Metrics.results(Metrics.Op.INFLUENCERS));
+            assertTrue(Metrics.latencyNanos(Metrics.Op.CONTAINING, 1) > 0);
+
+            Metrics.disable();
+            Filter.containing(tweets, Arrays.asList("talk"));
+            assertEquals(1, Metrics.calls(Metrics.Op.CONTAINING));
+        } finally {
+            Metrics.disable();
+            Metrics.reset();
+        }
+    }
+
+    @Test
+    public void testHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.valueAt(0.5));
+        for (long v = 1; v <= 50; v++) {
+            histogram.record(v);
+        }
+        assertEquals(50, histogram.count());
+        assertEquals(25, histogram.valueAt(0.5));
+        assertEquals(1, histogram.valueAt(0));
+        assertEquals(50, histogram.valueAt(1));
+
+        histogram.record(1_000_000_000L);
+        long max = histogram.valueAt(1);
+        assertTrue(max >= 1_000_000_000L && max <= 1_030_000_000L);
+    }
+
+    @Test
+    public void testExport() throws IOException {
+        try {
+            Metrics.reset();
+            Metrics.enable();
+            Filter.writtenBy(tweets, "alyssa");
+            Metrics.disable();
+
+            String text = Metrics.export();
+            assertTrue(text, text.contains("twitter_calls_total{op=\"written_by\"} 1\n"));
+            assertTrue(text, text.contains("twitter_results_total{op=\"written_by\"} 1\n"));
+            assertTrue(text, text.contains("twitter_latency_seconds_count{op=\"written_by\"} 1\n"));
+            assertTrue(text, text.contains("twitter_latency_seconds_sum{op=\"containing\"} 0.0\n"));
+            double seconds = Metrics.totalLatencyNanos(Metrics.Op.WRITTEN_BY) / 1e9;
+            assertTrue(text, text.contains("twitter_latency_seconds_sum{op=\"written_by\"} " + seconds + "\n"));
+
+            // every sample follows the TYPE line of its own family, and each family appears once
+            Set<String> families = new HashSet<>();
+            String family = null;
+            for (String line : text.split("\n")) {
+                if (line.startsWith("# TYPE ")) {
+                    family = line.split(" ")[2];
+                    assertTrue(line, families.add(family));
+                } else {
+                    String name = line.substring(0, line.indexOf('{'));
+                    assertTrue(line, name.equals(family) || name.equals(family + "_sum")
+                                     || name.equals(family + "_count"));
+                }
+            }
+            assertEquals(4, families.size());
+
+            Path file = Files.createTempFile("metrics", ".txt");
+            try {
+                Metrics.exportTo(file);
+                assertEquals(text, new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+            } finally {
+                Files.delete(file);
+            }
+
+            HttpServer server = Metrics.serve(new InetSocketAddress("localhost", 0));
+            try {
+                URL url = new URL("http://localhost:" + server.getAddress().getPort() + "/metrics");
+                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+                assertEquals(200, connection.getResponseCode());
+                assertEquals(text, read(connection.getInputStream()));
+            } finally {
+                server.stop(0);
+            }
+        } finally {
+            Metrics.disable();
+            Metrics.reset();
+        }
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (InputStream input = in) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = input.read(buffer)) > 0) {
+                bytes.write(buffer, 0, n);
+            }
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class ParallelExtractTest {
+
+    /**
+     * Testing Strategy - ParallelExtract.getTimespan(...)
+     * - tweets.size():   0, 1, many chunks
+     * - timestamps:      unordered, differing only in nanos, earliest/latest in the
+     *                    first, last and a middle chunk, before the epoch
+     * - list type:       random access, linked
+     * - _                result equals Extract.getTimespan
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        assertNull(ParallelExtract.getTimespan(new ArrayList<>()));
+    }
+
+    @Test
+    public void testOneTweet() {
+        Timespan span = ParallelExtract.getTimespan(Arrays.asList(new Tweet(1, "a", "t", d1)));
+
+        assertEquals(new Timespan(d1, d1), span);
+    }
+
+    @Test
+    public void testManyChunks() {
+        Random random = new Random(9);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 50000; i++) {
+            Instant ts = d1.plusSeconds(random.nextInt(1000) - 500).plusNanos(random.nextInt(1000));
+            tweets.add(new Tweet(i, "a", "t", ts));
+        }
+        tweets.set(123, new Tweet(123, "a", "t", Instant.parse("1960-01-01T00:00:00.5Z")));
+        tweets.set(31000, new Tweet(31000, "a", "t", d1.plusSeconds(600).plusNanos(1)));
+        tweets.set(31001, new Tweet(31001, "a", "t", d1.plusSeconds(600)));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Timespan expected = Extract.getTimespan(tweets);
+            assertEquals(expected, ParallelExtract.getTimespan(tweets, pool));
+            assertEquals(expected, ParallelExtract.getTimespan(new LinkedList<>(tweets), pool));
+            Collections.reverse(tweets);
+            assertEquals(expected, ParallelExtract.getTimespan(tweets, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
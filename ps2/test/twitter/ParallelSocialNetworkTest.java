@@ -0,0 +1,86 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class ParallelSocialNetworkTest {
+
+    /**
+     * Testing Strategy - ParallelSocialNetwork.guessFollowsGraph(...)
+     * - tweets.size():   0, < one chunk, many chunks
+     * - list type:       random access, linked
+     * - parallelism:     1, > 1
+     * - _                result equals SocialNetwork.guessFollowsGraph, and is mutable
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTrue(ParallelSocialNetwork.guessFollowsGraph(new ArrayList<>()).isEmpty());
+    }
+
+    @Test
+    public void testSmall() {
+        List<Tweet> tweets = randomTweets(100, 10);
+
+        Map<String, Set<String>> parallel = ParallelSocialNetwork.guessFollowsGraph(tweets);
+        assertEquals(SocialNetwork.guessFollowsGraph(tweets), parallel);
+
+        // mutable, like the sequential result
+        parallel.values().iterator().next().add("someone");
+        parallel.put("someone", new HashSet<>());
+    }
+
+    @Test
+    public void testManyChunks() {
+        List<Tweet> tweets = randomTweets(20000, 300);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(SocialNetwork.guessFollowsGraph(tweets),
+                         ParallelSocialNetwork.guessFollowsGraph(tweets, pool));
+            assertEquals(SocialNetwork.guessFollowsGraph(tweets),
+                         ParallelSocialNetwork.guessFollowsGraph(new LinkedList<>(tweets), pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testSingleThread() {
+        List<Tweet> tweets = randomTweets(5000, 50);
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            assertEquals(SocialNetwork.guessFollowsGraph(tweets),
+                         ParallelSocialNetwork.guessFollowsGraph(tweets, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static List<Tweet> randomTweets(int count, int users) {
+        Random random = new Random(count);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String text = "hi @U" + random.nextInt(users) + " and @u" + random.nextInt(users) + " x@u1";
+            tweets.add(new Tweet(i, "u" + random.nextInt(users), text, d1));
+        }
+        return tweets;
+    }
+}
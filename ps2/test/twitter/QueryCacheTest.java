@@ -0,0 +1,153 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class QueryCacheTest {
+
+    /**
+     * Testing Strategy - QueryCache queries
+     * - each kind:     writtenBy, inTimespan, containing, influencers; answer equals
+     *                  the Filter/SocialNetwork method
+     * - normalization: username case, word order, case and duplicates share an entry
+     * - answers:       unmodifiable
+     * 
+     * Testing Strategy - QueryCache eviction and invalidation
+     * - bound:         entry count reached, weight reached, answer heavier than the bound
+     * - order:         least recently used evicted first
+     * - corpus:        replace(), addAll() drop answers and bump version
+     * - threads:       concurrent queries agree with sequential answers
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much? @ben", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype @alyssa", d2);
+    private static final Tweet tweet3 = new Tweet(3, "Alyssa", "@bbitdiddle rivest", d2);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testAnswersAndNormalization() {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2);
+        QueryCache cache = new QueryCache(tweets, 10, 1000);
+
+        assertEquals(Filter.writtenBy(tweets, "alyssa"), cache.writtenBy("Alyssa"));
+        assertEquals(Filter.writtenBy(tweets, "alyssa"), cache.writtenBy("ALYSSA"));
+        assertEquals(Filter.containing(tweets, Arrays.asList("talk", "hype")),
+                     cache.containing(Arrays.asList("hype", "TALK", "talk")));
+        assertEquals(Filter.containing(tweets, Arrays.asList("talk", "hype")),
+                     cache.containing(Arrays.asList("talk", "hype")));
+        Timespan span = new Timespan(d1, d1);
+        assertEquals(Filter.inTimespan(tweets, span), cache.inTimespan(span));
+        assertEquals(SocialNetwork.influencers(SocialNetwork.guessFollowsGraph(tweets)), cache.influencers());
+
+        QueryCache.CacheStats stats = cache.stats();
+        assertEquals(2, stats.hits());
+        assertEquals(4, stats.misses());
+        assertEquals(4, stats.entries());
+        assertEquals(1.0 / 3, stats.hitRate(), 1e-9);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testAnswersUnmodifiable() {
+        QueryCache cache = new QueryCache(Arrays.asList(tweet1), 10, 1000);
+        cache.writtenBy("alyssa").add(tweet2);
+    }
+
+    @Test
+    public void testInvalidation() {
+        QueryCache cache = new QueryCache(Arrays.asList(tweet1, tweet2), 10, 1000);
+        assertEquals(1, cache.writtenBy("alyssa").size());
+        assertEquals(0, cache.version());
+
+        cache.addAll(Arrays.asList(tweet3));
+        assertEquals(1, cache.version());
+        assertEquals(0, cache.stats().entries());
+        assertEquals(Arrays.asList(tweet1, tweet3), cache.writtenBy("alyssa"));
+
+        cache.replace(Arrays.asList(tweet2));
+        assertEquals(2, cache.version());
+        assertEquals(Arrays.asList(), cache.writtenBy("alyssa"));
+        assertEquals(3, cache.stats().misses());
+        assertEquals(0, cache.stats().evictions());
+    }
+
+    @Test
+    public void testEvictionByCountIsLru() {
+        QueryCache cache = new QueryCache(Arrays.asList(tweet1, tweet2), 2, 1000);
+        cache.writtenBy("alyssa");
+        cache.writtenBy("bbitdiddle");
+        cache.writtenBy("alyssa");       // hit, now most recent
+        cache.writtenBy("carol");        // evicts bbitdiddle
+        cache.writtenBy("alyssa");       // hit
+        cache.writtenBy("bbitdiddle");   // miss
+
+        QueryCache.CacheStats stats = cache.stats();
+        assertEquals(2, stats.hits());
+        assertEquals(4, stats.misses());
+        assertEquals(2, stats.evictions());
+        assertEquals(2, stats.entries());
+    }
+
+    @Test
+    public void testEvictionByWeight() {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tweets.add(new Tweet(i, "u" + (i % 2), "rivest talk", d1));
+        }
+        QueryCache cache = new QueryCache(tweets, 100, 8);
+        cache.writtenBy("u0");           // weight 6
+        cache.writtenBy("u1");           // weight 6, evicts u0
+        assertEquals(1, cache.stats().entries());
+        assertEquals(6, cache.stats().weight());
+        assertEquals(10, cache.containing(Arrays.asList("talk")).size()); // too heavy to keep
+        assertEquals(1, cache.stats().entries());
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    public void testConcurrentQueries() throws Exception {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            tweets.add(new Tweet(i, "u" + (i % 7), "w" + (i % 11) + " @u" + (i % 5), d1.plusSeconds(i)));
+        }
+        QueryCache cache = new QueryCache(tweets, 5, 10000);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(pool.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        String user = "U" + (i % 9);
+                        if (!cache.writtenBy(user).equals(Filter.writtenBy(tweets, user))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        QueryCache.CacheStats stats = cache.stats();
+        assertEquals(1600, stats.hits() + stats.misses());
+        assertTrue(stats.entries() <= 5);
+    }
+}
@@ -0,0 +1,133 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class QueryServerTest {
+
+    /**
+     * Testing Strategy - QueryServer endpoints
+     * - endpoint:      timeline, search, timespan, influencers
+     * - parameters:    limit absent, limit < count; user in different case; missing
+     *                  parameter, bad timestamp, bad limit (400); POST (405)
+     * - text:          needs JSON escaping
+     * 
+     * Testing Strategy - QueryServer.ingest(...), replace(...)
+     * - version increases, new tweets are served, old snapshot unaffected
+     * - concurrent requests during ingestion all succeed
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about \"rivest\" so much? @ben", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype @alyssa", d2);
+    private static final Tweet tweet3 = new Tweet(3, "ben", "@alyssa talk", d2);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEndpoints() throws IOException {
+        QueryServer server = new QueryServer(new InetSocketAddress("localhost", 0), Arrays.asList(tweet1, tweet2));
+        server.start();
+        try {
+            String timeline = get(server, "/timeline?user=ALYSSA", 200);
+            assertTrue(timeline, timeline.startsWith("{\"version\":0,\"count\":1,\"tweets\":[{\"id\":1,\"author\":\"alyssa\""));
+            assertTrue(timeline, timeline.contains("talk about \\\"rivest\\\" so much"));
+            assertTrue(timeline, timeline.contains("\"timestamp\":\"2016-02-17T10:00:00Z\""));
+
+            String search = get(server, "/search?words=TALK+nothing&limit=1", 200);
+            assertTrue(search, search.contains("\"count\":2"));
+            assertTrue(search, search.contains("\"id\":1"));
+            assertFalse(search, search.contains("\"id\":2"));
+
+            String timespan = get(server, "/timespan?start=2016-02-17T10:30:00Z&end=2016-02-17T12:00:00Z", 200);
+            assertTrue(timespan, timespan.contains("\"count\":1"));
+            assertTrue(timespan, timespan.contains("\"id\":2"));
+
+            String influencers = get(server, "/influencers?limit=2", 200);
+            assertEquals("{\"version\":0,\"users\":[{\"user\":\"alyssa\",\"followers\":1},"
+                         + "{\"user\":\"ben\",\"followers\":1}]}", influencers);
+
+            assertTrue(get(server, "/timeline", 400).contains("missing parameter user"));
+            assertTrue(get(server, "/timespan?start=yesterday&end=today", 400).contains("error"));
+            assertTrue(get(server, "/timespan?start=2016-02-17T12:00:00Z&end=2016-02-17T10:00:00Z", 400)
+                           .contains("error"));
+            assertTrue(get(server, "/search?words=a&limit=x", 400).contains("error"));
+
+            HttpURLConnection post = (HttpURLConnection) url(server, "/influencers").openConnection();
+            post.setRequestMethod("POST");
+            assertEquals(405, post.getResponseCode());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testIngestDuringRequests() throws Exception {
+        QueryServer server = new QueryServer(new InetSocketAddress("localhost", 0), Arrays.asList(tweet1, tweet2));
+        server.start();
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> responses = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                responses.add(clients.submit(() -> get(server, "/timeline?user=alyssa", 200)));
+            }
+            server.ingest(Arrays.asList(tweet3));
+            for (Future<String> response : responses) {
+                String r = response.get();
+                assertTrue(r, r.contains("\"count\":1"));
+                assertTrue(r, r.startsWith("{\"version\":0") || r.startsWith("{\"version\":1"));
+            }
+
+            assertEquals(1, server.version());
+            assertTrue(get(server, "/search?words=talk", 200).contains("\"count\":3"));
+            assertTrue(get(server, "/influencers?limit=1", 200).contains("{\"user\":\"alyssa\",\"followers\":2}"));
+
+            server.replace(Arrays.asList(tweet3));
+            assertEquals(2, server.version());
+            assertTrue(get(server, "/timeline?user=alyssa", 200).contains("\"count\":0"));
+        } finally {
+            clients.shutdown();
+            server.stop(0);
+        }
+    }
+
+    private static URL url(QueryServer server, String path) throws IOException {
+        return new URL("http://localhost:" + server.port() + path);
+    }
+
+    private static String get(QueryServer server, String path, int expectedStatus) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url(server, path).openConnection();
+        assertEquals(path, expectedStatus, connection.getResponseCode());
+        InputStream in = expectedStatus < 400 ? connection.getInputStream() : connection.getErrorStream();
+        try (InputStream input = in) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = input.read(buffer)) > 0) {
+                bytes.write(buffer, 0, n);
+            }
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class SegmentedTweetsTest {
+
+    /**
+     * Testing Strategy - SegmentedTweets.containing(...), writtenBy(...)
+     * - match location:   no segment, one segment, many segments, last partial segment
+     * - case:             query and tweet in different case
+     * - segment size:     1, larger than the list
+     * - _                 result equals the Filter method, in input order
+     * 
+     * Testing Strategy - SegmentedTweets.stats()
+     * - no queries; rare word skips most segments; scanned + skipped == segments per query
+     * 
+     * Testing Strategy - BloomFilter
+     * - no false negatives; false positive rate near the target
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testMatchesFilter() {
+        List<Tweet> tweets = corpus(1050);
+        for (int segmentSize : new int[] {1, 100, 5000}) {
+            SegmentedTweets store = new SegmentedTweets(tweets, segmentSize, 0.01);
+            for (List<String> words : Arrays.asList(Arrays.asList("RARE"), Arrays.asList("w1", "absent"),
+                                                    Arrays.asList("nothing"))) {
+                assertEquals(Filter.containing(tweets, words), store.containing(words));
+            }
+            for (String author : Arrays.asList("LONER", "u3", "nobody")) {
+                assertEquals(Filter.writtenBy(tweets, author), store.writtenBy(author));
+            }
+        }
+    }
+
+    @Test
+    public void testStats() {
+        List<Tweet> tweets = corpus(1050);
+        SegmentedTweets store = new SegmentedTweets(tweets, 100, 0.001);
+
+        assertEquals(11, store.segmentCount());
+        assertEquals(0, store.stats().queries());
+
+        assertEquals(2, store.containing(Arrays.asList("rare")).size());
+        store.writtenBy("loner");
+        SegmentedTweets.SegmentStats stats = store.stats();
+
+        assertEquals(2, stats.queries());
+        assertEquals(22, stats.segmentsScanned() + stats.segmentsSkipped());
+        assertTrue(stats.toString(), stats.segmentsSkipped() >= 18);
+        assertTrue(stats.skippedPerQuery() >= 9);
+    }
+
+    @Test
+    public void testBloomFilter() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.add("in" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(filter.mightContain("in" + (i % 1000)));
+            if (filter.mightContain("out" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue("false positives: " + falsePositives, falsePositives < 300);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testBadRate() {
+        new SegmentedTweets(new ArrayList<>(), 10, 1.0);
+    }
+
+    private static List<Tweet> corpus(int size) {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            String text = "w" + (i % 7) + " common text" + (i == 5 || i == 1049 ? " Rare" : "");
+            String author = i == 500 ? "Loner" : "u" + (i % 5);
+            tweets.add(new Tweet(i, author, text, d1.plusSeconds(i)));
+        }
+        return tweets;
+    }
+}
@@ -23,11 +23,13 @@ public class SocialNetworkTest {
      *                               non-overlapping mention (each user mentioned non-overlapping users in his/her tweets), 
      *                               overlapping mention, 
      *                               user mention themselves.
+     * - result:                     mutable, and independent of later calls
      *                               
      * Testing Strategy - SocialNetwork.influencers(...)
      * - input is empty
      * - input non-empty, there's no draw in number of followers
      * - input non-empty, there's draw in number of followers
+     * - users with no followers are still in the result, after every followed user
      * 
      *                                
      */
@@ -92,6 +94,17 @@ public class SocialNetworkTest {
         assertTrue(fLowered.get("alyssa").contains("bitch"));
     }    
     
+    @Test
+    public void testGuessFollowsGraphIsMutable() {
+        List<Tweet> all = Arrays.asList(tweet1, tweet2);
+        Map<String, Set<String>> followsGraph = SocialNetwork.guessFollowsGraph(all);
+        
+        followsGraph.get("alyssa").add("cumin");
+        followsGraph.put("esca-late", new HashSet<>(Arrays.asList("alyssa")));
+        assertEquals(3, followsGraph.size());
+        assertEquals(1, SocialNetwork.guessFollowsGraph(all).get("alyssa").size());
+    }
+
     @Test
     public void testGuessFollowsGraphUsersMentionThemselves() {
         List<Tweet> all = Arrays.asList(tweet3, tweet4);
@@ -132,10 +145,11 @@ public class SocialNetworkTest {
                                                    .map(s -> s.toLowerCase())
                                                    .collect(Collectors.toList());
 
-        assertEquals(3, influencersLower.size());
+        assertEquals(5, influencersLower.size());
         assertTrue(influencersLower.get(0).equals("a"));
         assertTrue(influencersLower.get(1).equals("b"));
         assertEquals("c", influencersLower.get(2));
+        assertTrue(influencersLower.subList(3, 5).containsAll(Arrays.asList("d", "q")));
     }   
     
     @Test
@@ -152,7 +166,7 @@ public class SocialNetworkTest {
                                                    .map(s -> s.toLowerCase())
                                                    .collect(Collectors.toList());
 
-        assertEquals(3, influencersLower.size());
+        assertEquals(5, influencersLower.size());
         assertTrue(influencersLower.get(0).equals("a") || influencersLower.get(1).equals("a"));
         assertTrue(influencersLower.get(0).equals("b") || influencersLower.get(1).equals("b"));
         assertEquals("c", influencersLower.get(2));
@@ -0,0 +1,163 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class TweetFileTest {
+
+    /**
+     * Testing Strategy - TweetFile.write(...), TweetFile.stream(...)
+     * - file:        empty, one record, many records
+     * - text:        plain, with tab/newline/backslash/CR, non-ASCII, 140 chars
+     * - window:      larger than the file, smaller than one record, record
+     *                straddling a window boundary
+     * - input:       empty lines, CRLF line ends, CRLF blank lines, no final newline,
+     *                malformed record
+     * - laziness:    limit() reads only a prefix
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final List<Tweet> tweets = Arrays.asList(
+            new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1),
+            new Tweet(-2, "bbit_diddle", "tab\there, newline\nthere, back\\slash\\t, cr\r", d1.plusNanos(5)),
+            new Tweet(3000000000L, "Cy-D", "caf\u00e9 \u4f60\u597d @alyssa \ud83d\ude00", d1.plusSeconds(60)),
+            new Tweet(4, "x", "", d1.minusSeconds(1)));
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        Path file = Files.createTempFile("tweets", ".tsv");
+        try (Stream<Tweet> stream = TweetFile.stream(file)) {
+            assertEquals(0, stream.count());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        assertRoundTrip(tweets, 1 << 20);
+    }
+
+    @Test
+    public void testSmallWindows() throws IOException {
+        List<Tweet> many = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int j = 0; j < i % 140; j++) {
+                text.append(j % 7 == 0 ? '\t' : (char) ('a' + j % 26));
+            }
+            many.add(new Tweet(i, "u" + i, text.toString(), d1.plusSeconds(i)));
+        }
+        for (int window : new int[] {7, 64, 100, 1000}) {
+            assertRoundTrip(many, window);
+        }
+    }
+
+    @Test
+    public void testHandWrittenFile() throws IOException {
+        Path file = Files.createTempFile("tweets", ".tsv");
+        try {
+            String content = "\n1\talyssa\t2016-02-17T10:00:00Z\thello world\r\n\n"
+                           + "2\tben\t2016-02-17T10:00:01Z\tno final newline";
+            Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+            try (Stream<Tweet> stream = TweetFile.stream(file, 16)) {
+                List<Tweet> read = stream.collect(Collectors.toList());
+                assertEquals(2, read.size());
+                assertEquals("hello world", read.get(0).getText());
+                assertEquals("ben", read.get(1).getAuthor());
+                assertEquals("no final newline", read.get(1).getText());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testCrlfBlankLines() throws IOException {
+        Path file = Files.createTempFile("tweets", ".tsv");
+        try {
+            String content = "\r\n1\talyssa\t2016-02-17T10:00:00Z\thello\r\n\r\n\r\n"
+                           + "2\tben\t2016-02-17T10:00:01Z\tbye\r\n\r";
+            Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+            for (int window : new int[] { 1, 7, 1 << 16 }) {
+                try (Stream<Tweet> stream = TweetFile.stream(file, window)) {
+                    List<Tweet> read = stream.collect(Collectors.toList());
+                    assertEquals(2, read.size());
+                    assertEquals("hello", read.get(0).getText());
+                    assertEquals("bye", read.get(1).getText());
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testLimitReadsPrefix() throws IOException {
+        Path file = Files.createTempFile("tweets", ".tsv");
+        try {
+            TweetFile.write(file, tweets);
+            Files.write(file, "garbage\n".getBytes(StandardCharsets.UTF_8),
+                        java.nio.file.StandardOpenOption.APPEND);
+            try (Stream<Tweet> stream = TweetFile.stream(file)) {
+                assertEquals(tweets.subList(0, 2), stream.limit(2).collect(Collectors.toList()));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected=UncheckedIOException.class)
+    public void testMalformed() throws IOException {
+        Path file = Files.createTempFile("tweets", ".tsv");
+        try {
+            Files.write(file, "1\talyssa\tyesterday\thi\n".getBytes(StandardCharsets.UTF_8));
+            try (Stream<Tweet> stream = TweetFile.stream(file)) {
+                stream.count();
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void assertRoundTrip(List<Tweet> expected, int window) throws IOException {
+        Path file = Files.createTempFile("tweets", ".tsv");
+        try {
+            TweetFile.write(file, expected);
+            List<Tweet> read;
+            try (Stream<Tweet> stream = TweetFile.stream(file, window)) {
+                read = stream.collect(Collectors.toList());
+            }
+            assertEquals(expected.size(), read.size());
+            for (int i = 0; i < expected.size(); i++) {
+                Tweet e = expected.get(i);
+                Tweet r = read.get(i);
+                assertEquals(e.getId(), r.getId());
+                assertEquals(e.getAuthor(), r.getAuthor());
+                assertEquals(e.getText(), r.getText());
+                assertEquals(e.getTimestamp(), r.getTimestamp());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
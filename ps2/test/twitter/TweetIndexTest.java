@@ -0,0 +1,214 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Test;
+
+public class TweetIndexTest {
+
+    /**
+     * Testing Strategy - TweetIndex.containing(...)
+     * - words:     none match, one word matches, several words match overlapping tweets,
+     *              same word given twice in different case, many repeated words
+     * - text:      words separated by several spaces, by "/n", word repeated in one tweet
+     * - _          result equals Filter.containing on the same input, in input order
+     * 
+     * Testing Strategy - TweetIndex.writtenBy(...)
+     * - username:  not an author, author of one tweet, author of several tweets
+     *              written in different case, query in different case
+     * - locale:    default, Turkish (dotted/dotless i must not change the fold)
+     * - _          result equals Filter.writtenBy on the same input, in input order
+     * 
+     * Testing Strategy - TweetIndex.inTimespan(...)
+     * - timespan:  before all tweets, after all tweets, a single instant equal to
+     *              a timestamp, endpoints equal to timestamps (inclusive), covering all
+     * - timestamps: unordered input, equal timestamps, differing only in nanos
+     * - _          result equals Filter.inTimespan on the same input, in input order
+     * 
+     * Testing Strategy - PostingList
+     * - gaps:      0 (first position), small, needing several varint bytes
+     * - union:     one list, overlapping lists
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest  talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "alyssa", "Rivest/nTALK/nrivest", d2);
+    private static final Tweet tweet4 = new Tweet(4, "cy", " leading space and a//nslash", d1);
+
+    private static final List<Tweet> all = Arrays.asList(tweet1, tweet2, tweet3, tweet4);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testContainingNoMatch() {
+        TweetIndex index = new TweetIndex(all);
+
+        assertTrue(index.containing(Arrays.asList("obama", "rives")).isEmpty());
+    }
+
+    @Test
+    public void testContainingOneWord() {
+        TweetIndex index = new TweetIndex(all);
+        List<String> words = Arrays.asList("RIVEST");
+
+        assertEquals(Arrays.asList(tweet1, tweet2, tweet3), index.containing(words));
+        assertEquals(Filter.containing(all, words), index.containing(words));
+    }
+
+    @Test
+    public void testContainingSeveralWords() {
+        TweetIndex index = new TweetIndex(all);
+        List<String> words = Arrays.asList("#hype", "talk", "Talk", "a/");
+
+        assertEquals(Arrays.asList(tweet1, tweet2, tweet3, tweet4), index.containing(words));
+        assertEquals(Filter.containing(all, words), index.containing(words));
+    }
+
+    @Test
+    public void testContainingManyRepeatedWords() {
+        TweetIndex index = new TweetIndex(all);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            words.add(i % 2 == 0 ? "RIVEST" : "rivest");
+            words.add("absent" + i);
+        }
+
+        assertEquals(Arrays.asList(tweet1, tweet2, tweet3), index.containing(words));
+        assertEquals(3, index.estimateContaining(words));
+    }
+
+    @Test
+    public void testContainingSeparators() {
+        TweetIndex index = new TweetIndex(all);
+        for (String w : Arrays.asList("slash", "leading", "nslash", "much?", "/n")) {
+            List<String> words = Arrays.asList(w);
+            assertEquals(w, Filter.containing(all, words), index.containing(words));
+        }
+    }
+
+    @Test
+    public void testContainingIndexIsACopy() {
+        List<Tweet> tweets = new ArrayList<>(all);
+        TweetIndex index = new TweetIndex(tweets);
+        tweets.clear();
+
+        assertEquals(4, index.size());
+        assertEquals(Arrays.asList(tweet2), index.containing(Arrays.asList("minutes")));
+    }
+
+    @Test
+    public void testWrittenByNoSuchAuthor() {
+        TweetIndex index = new TweetIndex(all);
+
+        assertTrue(index.writtenBy("rivest").isEmpty());
+    }
+
+    @Test
+    public void testWrittenBy() {
+        Tweet shouting = new Tweet(5, "ALYSSA", "hello", d1);
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3, tweet4, shouting);
+        TweetIndex index = new TweetIndex(tweets);
+
+        assertEquals(Arrays.asList(tweet1, tweet3, shouting), index.writtenBy("AlYsSa"));
+        assertEquals(Arrays.asList(tweet2), index.writtenBy("bbitdiddle"));
+        for (String user : Arrays.asList("alyssa", "Cy", "nobody")) {
+            assertEquals(user, Filter.writtenBy(tweets, user), index.writtenBy(user));
+        }
+    }
+
+    @Test
+    public void testWrittenByTurkishLocale() {
+        Locale saved = Locale.getDefault();
+        try {
+            Locale.setDefault(new Locale("tr", "TR"));
+            Tweet tweet = new Tweet(6, "MIT_Ida", "hello", d1);
+            List<Tweet> tweets = Arrays.asList(tweet1, tweet);
+            TweetIndex index = new TweetIndex(tweets);
+
+            assertEquals(Arrays.asList(tweet), index.writtenBy("mit_IDA"));
+            assertEquals(Filter.writtenBy(tweets, "MIT_IDA"), index.writtenBy("MIT_IDA"));
+            assertEquals(1, index.countWrittenBy("Mit_ida"));
+        } finally {
+            Locale.setDefault(saved);
+        }
+    }
+
+    @Test
+    public void testInTimespanOutsideAll() {
+        TweetIndex index = new TweetIndex(all);
+
+        assertTrue(index.inTimespan(new Timespan(d1.minusSeconds(10), d1.minusNanos(1))).isEmpty());
+        assertTrue(index.inTimespan(new Timespan(d2.plusNanos(1), d2.plusSeconds(10))).isEmpty());
+    }
+
+    @Test
+    public void testInTimespanInclusiveEndpoints() {
+        TweetIndex index = new TweetIndex(all);
+        Timespan instant = new Timespan(d1, d1);
+        Timespan both = new Timespan(d1, d2);
+
+        assertEquals(Arrays.asList(tweet1, tweet4), index.inTimespan(instant));
+        assertEquals(all, index.inTimespan(both));
+        assertEquals(Filter.inTimespan(all, instant), index.inTimespan(instant));
+    }
+
+    @Test
+    public void testInTimespanUnorderedNanos() {
+        Instant base = Instant.parse("2016-02-17T12:00:00Z");
+        List<Tweet> tweets = new ArrayList<>();
+        int[] offsets = {5, 1, 3, 3, 0, 4, 2, 999_999_999, 1_000_000_000};
+        for (int i = 0; i < offsets.length; i++) {
+            tweets.add(new Tweet(i, "u" + i, "t", base.plusNanos(offsets[i])));
+        }
+        TweetIndex index = new TweetIndex(tweets);
+
+        for (int lo = 0; lo <= 5; lo++) {
+            for (int hi = lo; hi <= 6; hi++) {
+                Timespan span = new Timespan(base.plusNanos(lo), base.plusNanos(hi));
+                assertEquals(span.toString(), Filter.inTimespan(tweets, span), index.inTimespan(span));
+            }
+        }
+        Timespan late = new Timespan(base.plusNanos(999_999_999), base.plusSeconds(1));
+        assertEquals(Arrays.asList(tweets.get(7), tweets.get(8)), index.inTimespan(late));
+    }
+
+    @Test
+    public void testPostingListRoundTrip() {
+        PostingList.Builder builder = new PostingList.Builder();
+        int[] positions = {0, 1, 1, 5, 200, 70000, 70001, Integer.MAX_VALUE};
+        for (int p : positions) {
+            builder.add(p);
+        }
+        PostingList list = builder.build();
+
+        assertEquals(7, list.size());
+        assertArrayEquals(new int[] {0, 1, 5, 200, 70000, 70001, Integer.MAX_VALUE}, list.toArray());
+    }
+
+    @Test
+    public void testPostingListUnion() {
+        PostingList.Builder a = new PostingList.Builder();
+        PostingList.Builder b = new PostingList.Builder();
+        for (int p : new int[] {1, 3, 5}) {
+            a.add(p);
+        }
+        for (int p : new int[] {2, 3, 6}) {
+            b.add(p);
+        }
+
+        assertArrayEquals(new int[] {1, 3, 5}, PostingList.union(a.build()));
+        assertArrayEquals(new int[] {1, 2, 3, 5, 6}, PostingList.union(a.build(), b.build()));
+    }
+}
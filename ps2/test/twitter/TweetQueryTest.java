@@ -0,0 +1,112 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TweetQueryTest {
+
+    /**
+     * Testing Strategy - TweetQuery.execute(...)
+     * - predicates:  none, author only, timespan only, words only, all three
+     * - input:       List<Tweet> (fused scan), TweetIndex (index-driven plan)
+     * - selectivity: author most selective, timespan most selective, words most
+     *                selective, predicate matching nothing
+     * - _            result equals chained Filter calls, in input order
+     * 
+     * Testing Strategy - TweetQuery.explain(...)
+     * - list input mentions a scan; index input names the chosen driver
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final List<Tweet> tweets = randomTweets();
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testNoPredicates() {
+        TweetQuery query = TweetQuery.builder().build();
+
+        assertEquals(tweets, query.execute(tweets));
+        assertEquals(tweets, query.execute(new TweetIndex(tweets)));
+    }
+
+    @Test
+    public void testMatchesChainedFilters() {
+        TweetIndex index = new TweetIndex(tweets);
+        String[] authors = {"U3", "u0", "nobody"};
+        Timespan[] spans = {
+            new Timespan(d1, d1.plusSeconds(3000)),
+            new Timespan(d1.plusSeconds(500), d1.plusSeconds(510)),
+            new Timespan(d1.minusSeconds(10), d1.minusSeconds(5)),
+        };
+        List<List<String>> wordLists = Arrays.asList(
+                Arrays.asList("W1"), Arrays.asList("w2", "rare", "w3"), Arrays.asList("absent"));
+
+        for (String author : authors) {
+            for (Timespan span : spans) {
+                for (List<String> words : wordLists) {
+                    List<Tweet> expected = Filter.containing(
+                            Filter.inTimespan(Filter.writtenBy(tweets, author), span), words);
+                    TweetQuery query = TweetQuery.builder()
+                            .writtenBy(author).inTimespan(span).containingAny(words).build();
+
+                    String label = query + " " + query.explain(index);
+                    assertEquals(label, expected, query.execute(tweets));
+                    assertEquals(label, expected, query.execute(index));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSinglePredicates() {
+        TweetIndex index = new TweetIndex(tweets);
+        Timespan span = new Timespan(d1.plusSeconds(100), d1.plusSeconds(900));
+
+        TweetQuery byAuthor = TweetQuery.builder().writtenBy("u7").build();
+        TweetQuery bySpan = TweetQuery.builder().inTimespan(span).build();
+        TweetQuery byWords = TweetQuery.builder().containingAny(Arrays.asList("rare")).build();
+
+        assertEquals(Filter.writtenBy(tweets, "u7"), byAuthor.execute(index));
+        assertEquals(Filter.inTimespan(tweets, span), bySpan.execute(index));
+        assertEquals(Filter.containing(tweets, Arrays.asList("rare")), byWords.execute(index));
+    }
+
+    @Test
+    public void testExplain() {
+        TweetIndex index = new TweetIndex(tweets);
+        TweetQuery query = TweetQuery.builder()
+                .writtenBy("u1")
+                .inTimespan(new Timespan(d1, d1.plusSeconds(3000)))
+                .containingAny(Arrays.asList("rare"))
+                .build();
+
+        assertTrue(query.explain(tweets).startsWith("scan " + tweets.size()));
+        String plan = query.explain(index);
+        assertTrue(plan, plan.startsWith("index lookup containing([rare])"));
+        assertTrue(plan, plan.contains("author="));
+    }
+
+    private static List<Tweet> randomTweets() {
+        Random random = new Random(14);
+        List<Tweet> list = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String text = "w" + random.nextInt(10) + " w" + random.nextInt(10)
+                        + (i % 97 == 0 ? " RARE" : "");
+            String author = (random.nextBoolean() ? "u" : "U") + random.nextInt(10);
+            list.add(new Tweet(i, author, text, d1.plusSeconds(random.nextInt(1000))));
+        }
+        return list;
+    }
+}
@@ -0,0 +1,100 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TweetStoreTest {
+
+    /**
+     * Testing Strategy - TweetStore
+     * - size:        0, 1, more than the builder's initial column capacity
+     * - rows:        non-ASCII text, empty text, authors repeated in different case,
+     *                negative ids, timestamps with nanos and before the epoch
+     * - asList():    equals the input, materializes equal tweets
+     * - builder:     still usable after build(), earlier store unchanged
+     * 
+     * Testing Strategy - store overloads of Extract, Filter, SocialNetwork
+     * - each returns the same result as the List<Tweet> method on the same tweets
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final List<Tweet> tweets = Arrays.asList(
+            new Tweet(1, "alyssa", "talk about @rivest so much? @Bitdiddle", d1),
+            new Tweet(-2, "ALYSSA", "caf\u00e9 #hype", d1.plusNanos(7)),
+            new Tweet(3, "bitdiddle", "", Instant.parse("1969-12-31T23:59:59.5Z")),
+            new Tweet(4, "cy", "@Alyssa rivest talk", d1.plusSeconds(30)));
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        TweetStore store = TweetStore.of(new ArrayList<>());
+
+        assertEquals(0, store.size());
+        assertTrue(store.asList().isEmpty());
+        assertNull(Extract.getTimespan(store));
+        assertTrue(Filter.writtenBy(store, "alyssa").isEmpty());
+    }
+
+    @Test
+    public void testRows() {
+        TweetStore store = TweetStore.of(tweets);
+
+        assertEquals(4, store.size());
+        assertEquals(tweets, store.asList());
+        for (int r = 0; r < tweets.size(); r++) {
+            Tweet t = store.get(r);
+            assertEquals(tweets.get(r).getId(), store.id(r));
+            assertEquals(tweets.get(r).getAuthor(), t.getAuthor());
+            assertEquals(tweets.get(r).getText(), t.getText());
+            assertEquals(tweets.get(r).getTimestamp(), t.getTimestamp());
+        }
+    }
+
+    @Test
+    public void testBuilderReusable() {
+        TweetStore.Builder builder = new TweetStore.Builder();
+        builder.add(tweets.get(0));
+        TweetStore first = builder.build();
+        builder.add(tweets.get(1));
+        TweetStore second = builder.build();
+
+        assertEquals(1, first.size());
+        assertEquals(tweets.subList(0, 2), second.asList());
+        assertEquals(tweets.get(1).getText(), second.text(1));
+    }
+
+    @Test
+    public void testOverloadsMatchListMethods() {
+        List<Tweet> many = new ArrayList<>(tweets);
+        Random random = new Random(11);
+        for (int i = 0; i < 3000; i++) {
+            String text = "w" + random.nextInt(20) + " @U" + random.nextInt(40) + " w" + random.nextInt(20);
+            many.add(new Tweet(100 + i, "u" + random.nextInt(40), text, d1.plusSeconds(random.nextInt(100))));
+        }
+        TweetStore store = TweetStore.of(many);
+        Timespan span = new Timespan(d1.plusNanos(7), d1.plusSeconds(30));
+
+        assertEquals(many, store.asList());
+        assertEquals(Extract.getTimespan(many), Extract.getTimespan(store));
+        assertEquals(Extract.getMentionedUsers(many), Extract.getMentionedUsers(store));
+        assertEquals(Filter.writtenBy(many, "Alyssa"), Filter.writtenBy(store, "Alyssa"));
+        assertEquals(Filter.writtenBy(many, "U7"), Filter.writtenBy(store, "U7"));
+        assertTrue(Filter.writtenBy(store, "nobody").isEmpty());
+        assertEquals(Filter.inTimespan(many, span), Filter.inTimespan(store, span));
+        List<String> words = Arrays.asList("RIVEST", "w3", "#hype");
+        assertEquals(Filter.containing(many, words), Filter.containing(store, words));
+        assertEquals(SocialNetwork.guessFollowsGraph(many), SocialNetwork.guessFollowsGraph(store));
+    }
+}
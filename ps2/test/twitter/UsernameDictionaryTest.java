@@ -0,0 +1,120 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+public class UsernameDictionaryTest {
+
+    /**
+     * Testing Strategy - UsernameDictionary
+     * - idOf():      new username, same username in another case, many usernames
+     * - find():      known spelling, unseen spelling of a known username, unknown
+     * - nameOf():    valid id, invalid id
+     * - threads:     many threads adding overlapping usernames agree on ids
+     * 
+     * Testing Strategy - id-space overloads
+     * - Extract.getMentionedUserIds, Filter.writtenBy(.., int, ..),
+     *   SocialNetwork.guessFollowsGraph(.., dictionary) agree with the string versions
+     * - Filter.writtenBy(.., int, ..) leaves the dictionary unchanged
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testIds() {
+        UsernameDictionary dictionary = new UsernameDictionary();
+
+        assertEquals(0, dictionary.idOf("Ernie"));
+        assertEquals(1, dictionary.idOf("bert"));
+        assertEquals(0, dictionary.idOf("ERNIE"));
+        assertEquals(0, dictionary.find("eRnIe"));
+        assertEquals(1, dictionary.find("BERT"));
+        assertEquals(-1, dictionary.find("elmo"));
+        assertEquals("ernie", dictionary.nameOf(0));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testNameOfUnknownId() {
+        new UsernameDictionary().nameOf(0);
+    }
+
+    @Test
+    public void testConcurrentAdds() throws InterruptedException {
+        UsernameDictionary dictionary = new UsernameDictionary();
+        Set<String> failures = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            final boolean upper = t % 2 == 0;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 2000; i++) {
+                        String name = upper ? "USER" + i : "user" + i;
+                        int id = dictionary.idOf(name);
+                        if (!dictionary.nameOf(id).equals("user" + i)) {
+                            failures.add(name);
+                        }
+                    }
+                } catch (InterruptedException ie) {
+                    failures.add("interrupted");
+                }
+            }));
+        }
+        for (Thread t : threads) {
+            t.start();
+        }
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        assertTrue(failures.toString(), failures.isEmpty());
+        assertEquals(2000, dictionary.size());
+    }
+
+    @Test
+    public void testIdOverloads() {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(0, "aLYssA", "rivest?@bitch", d1),
+                new Tweet(1, "alyssa", "@BITCH and @cumin", d1),
+                new Tweet(2, "bitch", "email@cumin, @doggie @otherone", d1),
+                new Tweet(3, "cumin", "@cumin only myself", d1));
+        UsernameDictionary dictionary = new UsernameDictionary();
+        dictionary.idOf("someone-else");
+
+        BitSet ids = Extract.getMentionedUserIds(tweets, dictionary);
+        Set<String> names = new HashSet<>();
+        ids.stream().forEach(id -> names.add(dictionary.nameOf(id)));
+        assertEquals(Extract.getMentionedUsers(tweets), names);
+
+        int alyssa = dictionary.idOf("Alyssa");
+        int size = dictionary.size();
+        List<Tweet> withStranger = new ArrayList<>(tweets);
+        withStranger.add(new Tweet(4, "stranger", "not mentioned anywhere", d1));
+        assertEquals(Filter.writtenBy(tweets, "alyssa"), Filter.writtenBy(withStranger, alyssa, dictionary));
+        assertEquals("writtenBy must not add authors", size, dictionary.size());
+
+        CompactFollowsGraph graph = SocialNetwork.guessFollowsGraph(tweets, dictionary);
+        assertEquals(SocialNetwork.guessFollowsGraph(tweets), graph.asMap());
+        assertEquals(dictionary.find("bitch"), graph.idOf("BITCH"));
+        assertEquals(1, graph.followerCount(dictionary.find("cumin")));
+    }
+}